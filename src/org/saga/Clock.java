@@ -1,7 +1,7 @@
 package org.saga;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 
@@ -11,341 +11,551 @@ import org.saga.Clock.DaytimeTicker.Daytime;
 
 public class Clock implements Runnable{
 
-	
+
 	/**
 	 * Lag delay compensation.
 	 */
 	private final static Integer LAG_COMPENSATION = 120;
 
-	
+	/**
+	 * Ticks in a second.
+	 */
+	public final static int SECOND = 20;
+
+	/**
+	 * Ticks in a minute.
+	 */
+	public final static int MINUTE = 60 * SECOND;
+
+	/**
+	 * Ticks in an hour.
+	 */
+	public final static int HOUR = 60 * MINUTE;
+
+	/**
+	 * Number of wheel slots, power of two.
+	 */
+	private final static int WHEEL_SIZE = 2048;
+
+
 	/**
 	 * Instance.
 	 */
-	private static Clock instance; 
-	
+	private static Clock instance;
+
 	/**
 	 * Gets the clock.
-	 * 
+	 *
 	 * @return clock.
 	 */
 	public static Clock clock() {
 		return instance;
 	}
-	
+
 
 	/**
 	 * Clock task ID.
 	 */
 	private int taskId = -1;
-	
-	
+
+
 	/**
-	 * Seconds cycle.
+	 * Current tick.
 	 */
-	private short secondsCycle = 0;
-	
+	private long now = 0;
+
 	/**
-	 * Minutes cycle.
+	 * Timer wheel, indexed by deadline.
 	 */
-	private short minutesCycle = 0;
-	
+	@SuppressWarnings("unchecked")
+	private ArrayList<Timer>[] wheel = new ArrayList[WHEEL_SIZE];
+
 	/**
-	 * Hours cycle.
+	 * Next spreading offsets, by period.
 	 */
-	private short hoursCycle = 0;
-	
-	
+	private HashMap<Integer, Integer> spreads = new HashMap<Integer, Integer>();
+
+
 	/**
 	 * Second tick instances.
 	 */
-	private HashSet<SecondTicker> seconds = new HashSet<SecondTicker>();
+	private HashMap<SecondTicker, Timer> seconds = new HashMap<SecondTicker, Timer>();
 
 	/**
 	 * Minute tick instances.
 	 */
-	private HashSet<MinuteTicker> minutes = new HashSet<MinuteTicker>();
+	private HashMap<MinuteTicker, Timer> minutes = new HashMap<MinuteTicker, Timer>();
 
 	/**
 	 * Hour tick instances.
 	 */
-	private HashSet<HourTicker> hours = new HashSet<HourTicker>();
+	private HashMap<HourTicker, Timer> hours = new HashMap<HourTicker, Timer>();
 
 	/**
-	 * Daytime tick instances.
+	 * Daytime tick instances, replaced on every change.
 	 */
-	private HashSet<DaytimeTicker> daytimes = new HashSet<DaytimeTicker>();
+	private DaytimeTicker[] daytimes = new DaytimeTicker[0];
+
 
-	
 	/**
 	 * Previous daytime.
 	 */
 	private Hashtable<String, Daytime> prevDaytimes = new Hashtable<String, Clock.DaytimeTicker.Daytime>();
-	
-	
-	
+
+
+
 	// Ticking:
-	/* 
+	/*
 	 * (non-Javadoc)
-	 * 
+	 *
 	 * @see java.lang.Runnable#run()
 	 */
 	@Override
 	synchronized public void run() {
-		
-		
-		// Seconds:
-		secondsCycle ++;
-		
-		ArrayList<SecondTicker> second = new ArrayList<Clock.SecondTicker>(this.seconds);
-		for (SecondTicker ticker : second) {
-			if(!ticker.clockSecondTick()) this.seconds.remove(ticker);
-		}
-		
-		// Minutes:
-		if(secondsCycle > 59){
-			
-			secondsCycle = 0;
-			minutesCycle++;
-			
-			ArrayList<MinuteTicker> minute = new ArrayList<Clock.MinuteTicker>(this.minutes);
-			for (MinuteTicker ticker : minute) {
-				if(!ticker.clockMinuteTick()) this.minutes.remove(ticker);
-			}
-			
-		}
-		
-		// Hours:
-		if(minutesCycle > 59){
-			
-			minutesCycle = 0;
-			hoursCycle ++;
 
-			ArrayList<HourTicker> hour = new ArrayList<HourTicker>(this.hours);
-			for (HourTicker ticker : hour) {
-				if(!ticker.clockHourTick()) this.hours.remove(ticker);
+
+		now++;
+
+		// Timers:
+		int slot = (int) (now & (WHEEL_SIZE - 1));
+		ArrayList<Timer> timers = wheel[slot];
+		if(timers != null){
+
+			// Timers added while ticking go to a new list:
+			wheel[slot] = null;
+
+			for (Timer timer : timers) {
+
+				if(timer.cancelled) continue;
+
+				// Later round:
+				if(timer.deadline > now){
+					add(timer);
+					continue;
+				}
+
+				// Tick:
+				if(timer.tick()){
+					timer.deadline = now + timer.period;
+					add(timer);
+				}else{
+					timer.cancel();
+				}
+
 			}
-			
-		}
-		
-		if(hoursCycle > 23){
-			hoursCycle = 0;
+
 		}
 
 		// Time of day:
-		sendDaytimeTicks();
-		
+		if(now % SECOND == 0) sendDaytimeTicks();
+
 
 	}
 
 	/**
 	 * Sends daytime ticks.
-	 * 
+	 *
 	 */
 	private void sendDaytimeTicks() {
 
-		
+
 		List<World> worlds = Saga.plugin().getServer().getWorlds();
-		
+
 		for (World world : worlds) {
-			
+
 			String worldName = world.getName();
-			
+
 			Daytime prevDaytime = prevDaytimes.get(worldName);
 			Daytime currDaytime = Daytime.getDaytime(world.getTime());
-			
+
 			// Tick only if daytime changed:
 			if(currDaytime != Daytime.NONE && prevDaytime != currDaytime){
-				
-				ArrayList<DaytimeTicker> daytimes = new ArrayList<DaytimeTicker>(this.daytimes);
-				for (DaytimeTicker ticker : daytimes) {
-					
-					if(ticker.checkWorld(worldName)){
-						
-						if(!ticker.daytimeTick(currDaytime)) this.daytimes.remove(ticker);
-						
+
+				DaytimeTicker[] daytimes = this.daytimes;
+				for (int i = 0; i < daytimes.length; i++) {
+
+					if(daytimes[i].checkWorld(worldName)){
+
+						if(!daytimes[i].daytimeTick(currDaytime)) disableDaytimeTicking(daytimes[i]);
+
 					}
-					
+
 				}
-				
+
 			}
-			
+
 			// Update previous:
 			prevDaytimes.put(worldName, currDaytime);
-			
-			
+
+
 		}
-		
-		
+
+
 	}
-	
+
 	/**
 	 * Forces next daytime.
-	 * 
+	 *
 	 * @param world world
 	 * @return next daytime
 	 */
 	public Daytime forceNextDaytime(World world) {
 
-		
+
 		Daytime nextDaytime = Daytime.getNextDaytime(world.getTime());
-		
+
 		world.setTime(nextDaytime.getTime());
-		
+
 		return nextDaytime;
-		
-		
+
+
 	}
 
-	
+
+
+	// Timers:
+	/**
+	 * Adds a timer to the wheel.
+	 *
+	 * @param timer timer
+	 */
+	private void add(Timer timer) {
+
+
+		int slot = (int) (timer.deadline & (WHEEL_SIZE - 1));
+
+		ArrayList<Timer> timers = wheel[slot];
+		if(timers == null){
+			timers = new ArrayList<Timer>();
+			wheel[slot] = timers;
+		}
+		timers.add(timer);
+
+
+	}
+
+	/**
+	 * Starts a timer.
+	 * The first tick is spread over the period, so timers with the same period don't tick together.
+	 *
+	 * @param timer timer
+	 */
+	private void start(Timer timer) {
+
+
+		Integer spread = spreads.get(timer.period);
+		if(spread == null) spread = 0;
+		spreads.put(timer.period, (spread + 1) % timer.period);
+
+		timer.deadline = now + 1 + spread;
+		add(timer);
+
+
+	}
+
+	/**
+	 * Enables ticking with an arbitrary period.
+	 *
+	 * @param ticker ticker
+	 * @param period period in server ticks
+	 * @return timer, can be used to cancel ticking
+	 */
+	synchronized public Timer enablePeriodicTick(final PeriodicTicker ticker, int period) {
+
+
+		if(period < 1) period = 1;
+
+		Timer timer = new Timer(period) {
+			@Override
+			protected boolean tick() {
+				return ticker.clockTick();
+			}
+		};
+		start(timer);
+
+		return timer;
+
+
+	}
+
+
 
 	// Ticking:
 	/**
 	 * Enables second ticking.
-	 * 
+	 *
 	 * @param ticker ticker
 	 */
-	public void enableSecondTick(SecondTicker ticker) {
+	synchronized public void enableSecondTick(final SecondTicker ticker) {
 
-		
-		synchronized (seconds) {
-			
-			if(seconds.contains(ticker)){
-				SagaLogger.warning(getClass(), ticker.getClass().getSimpleName() + "{" + ticker + "}" + " second ticker already registered");
-				return;
-			}
-			seconds.add(ticker);
-		
+
+		if(seconds.containsKey(ticker)){
+			SagaLogger.warning(getClass(), ticker.getClass().getSimpleName() + "{" + ticker + "}" + " second ticker already registered");
+			return;
 		}
-		
-		
+
+		Timer timer = new Timer(SECOND) {
+			@Override
+			protected boolean tick() {
+				return ticker.clockSecondTick();
+			}
+			@Override
+			public void cancel() {
+				super.cancel();
+				if(seconds.get(ticker) == this) seconds.remove(ticker);
+			}
+		};
+		seconds.put(ticker, timer);
+		start(timer);
+
+
 	}
 
 	/**
 	 * Checks if the second clock is ticking.
-	 * 
+	 *
 	 * @param ticker ticker
 	 * @return true if ticking
 	 */
-	public boolean isSecondTicking(SecondTicker ticker) {
-		return seconds.contains(ticker);
+	synchronized public boolean isSecondTicking(SecondTicker ticker) {
+		return seconds.containsKey(ticker);
 	}
-	
-	
+
+
 	/**
 	 * Registers minute ticking.
-	 * 
+	 *
 	 * @param ticker ticker
 	 */
-	public void enableMinuteTick(MinuteTicker ticker) {
+	synchronized public void enableMinuteTick(final MinuteTicker ticker) {
 
-		
-		synchronized (minutes) {
 
-			if(minutes.contains(ticker)){
-				SagaLogger.warning(getClass(), ticker.getClass().getSimpleName() + "{" + ticker + "}" + " minute ticker already registered");
-				return;
-			}
-			minutes.add(ticker);
-			
+		if(minutes.containsKey(ticker)){
+			SagaLogger.warning(getClass(), ticker.getClass().getSimpleName() + "{" + ticker + "}" + " minute ticker already registered");
+			return;
 		}
-		
-		
+
+		Timer timer = new Timer(MINUTE) {
+			@Override
+			protected boolean tick() {
+				return ticker.clockMinuteTick();
+			}
+			@Override
+			public void cancel() {
+				super.cancel();
+				if(minutes.get(ticker) == this) minutes.remove(ticker);
+			}
+		};
+		minutes.put(ticker, timer);
+		start(timer);
+
+
 	}
 
 	/**
 	 * Checks if the minute clock is ticking.
-	 * 
+	 *
 	 * @param ticker ticker
 	 * @return true if ticking
 	 */
-	public boolean isMinuteTicking(MinuteTicker ticker) {
-		return minutes.contains(ticker);
+	synchronized public boolean isMinuteTicking(MinuteTicker ticker) {
+		return minutes.containsKey(ticker);
 	}
-	
-	
+
+
 	/**
 	 * Enables hour ticking.
-	 * 
+	 *
 	 * @param ticker ticker
 	 */
-	public void enableHourTicking(HourTicker ticker) {
+	synchronized public void enableHourTicking(final HourTicker ticker) {
 
-		
-		synchronized (hours) {
-			
-			if(hours.contains(ticker)){
-				SagaLogger.warning(getClass(), ticker.getClass().getSimpleName() + "{" + ticker + "}" + " hour ticker already registered");
-				return;
-			}
-			hours.add(ticker);
-			
+
+		if(hours.containsKey(ticker)){
+			SagaLogger.warning(getClass(), ticker.getClass().getSimpleName() + "{" + ticker + "}" + " hour ticker already registered");
+			return;
 		}
-		
-		
+
+		Timer timer = new Timer(HOUR) {
+			@Override
+			protected boolean tick() {
+				return ticker.clockHourTick();
+			}
+			@Override
+			public void cancel() {
+				super.cancel();
+				if(hours.get(ticker) == this) hours.remove(ticker);
+			}
+		};
+		hours.put(ticker, timer);
+		start(timer);
+
+
 	}
 
-	
+
 	/**
 	 * Enables daytime ticking.
-	 * 
+	 *
 	 * @param ticker ticker
 	 */
-	public void enableDaytimeTicking(DaytimeTicker ticker) {
+	synchronized public void enableDaytimeTicking(DaytimeTicker ticker) {
 
-		
-		synchronized (daytimes) {
 
-			if(daytimes.contains(ticker)){
+		for (int i = 0; i < daytimes.length; i++) {
+			if(daytimes[i].equals(ticker)){
 				SagaLogger.warning(getClass(), ticker.getClass().getSimpleName() + "{" + ticker + "}" + " daytime ticker already registered");
 				return;
 			}
-			daytimes.add(ticker);
-			
 		}
-		
-		
+
+		DaytimeTicker[] copy = new DaytimeTicker[daytimes.length + 1];
+		System.arraycopy(daytimes, 0, copy, 0, daytimes.length);
+		copy[daytimes.length] = ticker;
+		daytimes = copy;
+
+
 	}
 
-	
-	
+	/**
+	 * Disables daytime ticking.
+	 *
+	 * @param ticker ticker
+	 */
+	synchronized private void disableDaytimeTicking(DaytimeTicker ticker) {
+
+
+		for (int i = 0; i < daytimes.length; i++) {
+
+			if(!daytimes[i].equals(ticker)) continue;
+
+			DaytimeTicker[] copy = new DaytimeTicker[daytimes.length - 1];
+			System.arraycopy(daytimes, 0, copy, 0, i);
+			System.arraycopy(daytimes, i + 1, copy, i, copy.length - i);
+			daytimes = copy;
+			return;
+
+		}
+
+
+	}
+
+
+
 	// Loading and unloading:
 	/**
 	 * Loads the clock.
-	 * 
+	 *
 	 */
 	public static void load() {
 
 		Clock clock = new Clock();
-		clock.taskId = Saga.plugin().getServer().getScheduler().scheduleSyncRepeatingTask(Saga.plugin(),clock , 200L, 20L);
+		clock.taskId = Saga.plugin().getServer().getScheduler().scheduleSyncRepeatingTask(Saga.plugin(),clock , 200L, 1L);
 		instance = clock;
-		
+
 		// Current daytimes:
 		List<World> worlds = Saga.plugin().getServer().getWorlds();
 		for (World world : worlds) {
 			clock.prevDaytimes.put(world.getName(), Daytime.getDaytime(world.getTime()));
 		}
-		
+
 	}
-	
+
 	/**
 	 * Unloads the clock.
-	 * 
+	 *
 	 */
 	public static void unload() {
 
 		Saga.plugin().getServer().getScheduler().cancelTask(clock().taskId);
+		instance.wheel = null;
+		instance.spreads = null;
 		instance.seconds = null;
 		instance.minutes = null;
 		instance.hours = null;
 		instance.daytimes = null;
 		instance.prevDaytimes = null;
 		instance = null;
-		
+
 	}
-	
-	
-	
+
+
+
 	// Types:
+	/**
+	 * Scheduled ticking.
+	 *
+	 */
+	public static abstract class Timer{
+
+
+		/**
+		 * Period in server ticks.
+		 */
+		private final int period;
+
+		/**
+		 * Tick when the timer is due.
+		 */
+		private long deadline = 0;
+
+		/**
+		 * True if cancelled.
+		 */
+		private boolean cancelled = false;
+
+
+		/**
+		 * Sets the period.
+		 *
+		 * @param period period in server ticks
+		 */
+		private Timer(int period) {
+			this.period = period;
+		}
+
+
+		/**
+		 * A timer tick.
+		 *
+		 * @return true if continue
+		 */
+		protected abstract boolean tick();
+
+		/**
+		 * Cancels the timer.
+		 * The timer is dropped from the wheel when its slot is next reached.
+		 *
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		/**
+		 * Checks if the timer is cancelled.
+		 *
+		 * @return true if cancelled
+		 */
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+
+	}
+
+	public static interface PeriodicTicker{
+
+
+		/**
+		 * A clock tick.
+		 *
+		 * @return true if continue
+		 */
+		public boolean clockTick();
+
+
+	}
+
 	public static interface SecondTicker{
 		
 		
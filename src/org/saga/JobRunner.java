@@ -0,0 +1,347 @@
+package org.saga;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.saga.Clock.PeriodicTicker;
+import org.saga.messages.GeneralMessages;
+import org.saga.player.SagaPlayer;
+
+/**
+ * Runner for long commands.
+ * Jobs do their file and aggregation work on worker threads and apply results on the main thread in batches.
+ *
+ */
+public class JobRunner implements PeriodicTicker{
+
+
+	/**
+	 * Number of worker threads.
+	 */
+	private final static int WORKERS = 2;
+
+	/**
+	 * Maximum steps applied for each job in a tick.
+	 */
+	private final static int BATCH_SIZE = 100;
+
+	/**
+	 * Ticks between progress reports.
+	 */
+	private final static int REPORT_PERIOD = 5 * Clock.SECOND;
+
+	/**
+	 * Time to wait for workers when unloading, in seconds.
+	 */
+	private final static int UNLOAD_WAIT = 30;
+
+
+	/**
+	 * Instance.
+	 */
+	private static JobRunner instance;
+
+	/**
+	 * Gets the job runner.
+	 *
+	 * @return job runner
+	 */
+	public static JobRunner runner() {
+		return instance;
+	}
+
+
+	/**
+	 * Worker threads.
+	 */
+	private ExecutorService workers;
+
+	/**
+	 * Submitted jobs, main thread only.
+	 */
+	private ArrayList<Job> jobs = new ArrayList<Job>();
+
+	/**
+	 * Clock timer.
+	 */
+	private Clock.Timer timer;
+
+
+
+	// Jobs:
+	/**
+	 * Submits a job. Must be called from the main thread.
+	 *
+	 * @param job job
+	 */
+	public void submit(final Job job) {
+
+
+		jobs.add(job);
+
+		workers.execute(new Runnable() {
+			@Override
+			public void run() {
+
+				try {
+					job.work();
+				}
+				catch (Throwable e) {
+					job.failure = e;
+				}
+
+				job.worked = true;
+
+			}
+		});
+
+
+	}
+
+	/**
+	 * Gets the number of unfinished jobs.
+	 *
+	 * @return unfinished jobs
+	 */
+	public int getJobCount() {
+		return jobs.size();
+	}
+
+
+
+	// Ticking:
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.saga.Clock.PeriodicTicker#clockTick()
+	 */
+	@Override
+	public boolean clockTick() {
+
+
+		for (int i = 0; i < jobs.size(); i++) {
+
+			Job job = jobs.get(i);
+			if(!job.worked) continue;
+
+			if(apply(job, BATCH_SIZE)){
+				jobs.remove(i);
+				i--;
+			}
+
+		}
+
+		return true;
+
+
+	}
+
+	/**
+	 * Applies job steps.
+	 *
+	 * @param job job
+	 * @param limit maximum steps, -1 if none
+	 * @return true if the job is finished
+	 */
+	private static boolean apply(Job job, int limit) {
+
+
+		try {
+
+			// Work failed:
+			if(job.failure != null) throw job.failure;
+
+			// Steps:
+			for (int i = 0; limit == -1 || i < limit; i++) {
+
+				if(!job.step()){
+					job.finish();
+					return true;
+				}
+
+				job.applied++;
+
+			}
+
+			// Progress:
+			job.ticks+= 1;
+			if(job.ticks % REPORT_PERIOD == 0 && job.sender != null) job.sender.message(GeneralMessages.jobProgress(job.name, job.applied, job.getTotal()));
+
+			return false;
+
+		}
+		catch (Throwable e) {
+
+			SagaLogger.severe(JobRunner.class, job.name + " job failed: " + e.getClass().getSimpleName() + ":" + e.getMessage());
+			if(job.sender != null) job.sender.message(GeneralMessages.jobFailed(job.name));
+			return true;
+
+		}
+
+
+	}
+
+
+
+	// Load unload:
+	/**
+	 * Loads the job runner.
+	 *
+	 */
+	public static void load() {
+
+
+		JobRunner runner = new JobRunner();
+
+		runner.workers = Executors.newFixedThreadPool(WORKERS, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Saga job worker");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		runner.timer = Clock.clock().enablePeriodicTick(runner, 1);
+		instance = runner;
+
+
+	}
+
+	/**
+	 * Unloads the job runner. Unfinished jobs are completed on the calling thread.
+	 *
+	 */
+	public static void unload() {
+
+
+		instance.timer.cancel();
+		instance.workers.shutdown();
+
+		if(instance.jobs.size() > 0){
+
+			SagaLogger.info("Finishing " + instance.jobs.size() + " jobs.");
+
+			try {
+				if(!instance.workers.awaitTermination(UNLOAD_WAIT, TimeUnit.SECONDS)) SagaLogger.severe(JobRunner.class, "workers didn't finish");
+			}
+			catch (InterruptedException e) {
+				SagaLogger.severe(JobRunner.class, "interrupted while waiting for workers");
+			}
+
+			for (Job job : instance.jobs) {
+				if(job.worked) apply(job, -1);
+			}
+
+		}
+
+		instance = null;
+
+
+	}
+
+
+
+	// Types:
+	/**
+	 * Long command.
+	 *
+	 */
+	public static abstract class Job{
+
+
+		/**
+		 * Player who started the job, null if started by the plugin.
+		 */
+		private final SagaPlayer sender;
+
+		/**
+		 * Job name.
+		 */
+		private final String name;
+
+		/**
+		 * True when the worker part is done.
+		 */
+		private volatile boolean worked = false;
+
+		/**
+		 * Worker failure, null if none.
+		 */
+		private volatile Throwable failure = null;
+
+		/**
+		 * Steps applied.
+		 */
+		private int applied = 0;
+
+		/**
+		 * Ticks spent applying.
+		 */
+		private int ticks = 0;
+
+
+		/**
+		 * Creates a job.
+		 *
+		 * @param sender player who started the job, null if started by the plugin
+		 * @param name job name
+		 */
+		public Job(SagaPlayer sender, String name) {
+			this.sender = sender;
+			this.name = name;
+		}
+
+
+		/**
+		 * Does the work that doesn't touch the world or shared state. Runs on a worker thread.
+		 *
+		 * @throws Exception when the job fails
+		 */
+		protected void work() throws Exception {
+
+		}
+
+		/**
+		 * Applies one step. Runs on the main thread.
+		 *
+		 * @return false if there are no steps left
+		 */
+		protected boolean step() {
+			return false;
+		}
+
+		/**
+		 * Gets the total number of steps.
+		 *
+		 * @return total steps
+		 */
+		protected int getTotal() {
+			return applied;
+		}
+
+		/**
+		 * Called when all steps are applied. Runs on the main thread.
+		 *
+		 */
+		protected void finish() {
+
+		}
+
+		/**
+		 * Gets the player who started the job.
+		 *
+		 * @return sender, null if started by the plugin
+		 */
+		public SagaPlayer getSender() {
+			return sender;
+		}
+
+
+	}
+
+
+}
@@ -2,9 +2,8 @@ package org.saga;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Enumeration;
-import java.util.Hashtable;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
@@ -43,10 +42,14 @@ import org.saga.factions.SiegeManager;
 import org.saga.factions.WarManager;
 import org.saga.listeners.BlockListener;
 import org.saga.listeners.EntityListener;
+import org.saga.listeners.InventoryListener;
 import org.saga.listeners.PlayerListener;
 import org.saga.listeners.ServerListener;
 import org.saga.listeners.WorldListener;
+import org.saga.listeners.events.ToolWearQueue;
+import org.saga.player.PlayerIndex;
 import org.saga.player.SagaPlayer;
+import org.saga.saveload.SaveQueue;
 import org.saga.settlements.BundleManager;
 import org.saga.statistics.StatisticsManager;
 import org.sk89q.CommandPermissionsException;
@@ -80,15 +83,25 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 
 	
 	/**
-	 * All saga players.
+	 * All saga players, keyed by lower case name.
 	 */
-	private Hashtable<String, SagaPlayer> loadedPlayers;
+	private ConcurrentHashMap<String, SagaPlayer> loadedPlayers;
+
+	/**
+	 * Online saga players, keyed by player.
+	 */
+	private ConcurrentHashMap<Player, SagaPlayer> onlinePlayers;
 
 
 	/**
 	 * Minutes left before save.
 	 */
 	private Integer saveMinutes;
+
+	/**
+	 * Saves left before everything is saved, changed or not.
+	 */
+	private Integer fullSaves;
 	
 	
 	
@@ -109,19 +122,28 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 		BundleManager.manager().updateStatistics();
 		FactionManager.manager().updateStatistics();
 
+		// Pending tool corrections:
+		ToolWearQueue.unload(); // Needs online players.
+
+		// Unfinished jobs:
+		JobRunner.unload(); // Needs managers and loaded players.
+
 		// Unload all saga players:
 		unloadAllSagaPlayers();
 
 		// Remove instances:
 		loadedPlayers = null;
+		onlinePlayers = null;
 
 		// Managers:
+		PlayerIndex.unload(); // Needs all players to be saved.
 		FactionClaimManager.unload(); // Needs access to factions and bundles.
 		WarManager.unload(); // Needs access to factions and bundles.
 		SiegeManager.unload(); // Needs access to factions and bundles.
 		BundleManager.unload(); // Needs building manager.
 		FactionManager.unload(); // Needs access to chunk group manager.
 		StatisticsManager.unload(); // Needs access to clock.
+		SaveQueue.unload(); // Needs to be unloaded after everything is saved.
 
 		// Dependencies:
 		PermissionsDependency.disable();
@@ -140,6 +162,7 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 		EconomyConfiguration.unload();
 		VanillaConfiguration.unload();
 		FactionConfiguration.unload();
+		TimerService.unload(); // Needs access to clock.
 		Clock.unload(); // Needs access to Saga.pluging().
 
 		Saga.plugin = null;
@@ -174,10 +197,13 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 		final PluginManager pluginManager = getServer().getPluginManager();
 
 		// Players:
-		loadedPlayers = new Hashtable<String, SagaPlayer>();
+		loadedPlayers = new ConcurrentHashMap<String, SagaPlayer>();
+		onlinePlayers = new ConcurrentHashMap<Player, SagaPlayer>();
 
 		// Configuration:
 		Clock.load(); // Needs access to Saga.pluging().
+		TimerService.load(); // Needs access to clock.
+		JobRunner.load(); // Needs access to clock.
 		GeneralConfiguration.load();
 		ExperienceConfiguration.load();
 		AbilityConfiguration.load();
@@ -188,6 +214,7 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 		EconomyConfiguration.load();
 		FactionConfiguration.load();
 		VanillaConfiguration.load();
+		SaveQueue.load(); // Needs access to general configuration.
 
 		// Dependencies:
 		SagaMobsDependency.enable();
@@ -202,6 +229,7 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 		FactionClaimManager.load(); // Needs access to factions and bundles.
 		SiegeManager.load(); // Needs access to factions and bundles.
 		WarManager.load(); // Needs access to factions and bundles.
+		PlayerIndex.load(); // Needs access to sieges.
 		
 		// Register events:
 		pluginManager.registerEvents(new PlayerListener(), this);
@@ -209,6 +237,7 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 		pluginManager.registerEvents(new BlockListener(), this);
 		pluginManager.registerEvents(new ServerListener(), this);
 		pluginManager.registerEvents(new WorldListener(), this);
+		pluginManager.registerEvents(new InventoryListener(), this);
 
 		// Commands map:
 		CommandsManager<Player> commandMap = PermissionsDependency.getCommandMap();
@@ -230,6 +259,7 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 
 		// Enable automatic saving:
 		saveMinutes = GeneralConfiguration.config().saveInterval;
+		fullSaves = GeneralConfiguration.config().fullSaveInterval;
 		Clock.clock().enableMinuteTick(this);
 
 		
@@ -284,6 +314,9 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 		FactionManager.manager().syncFaction(sagaPlayer);
 		BundleManager.manager().syncBundle(sagaPlayer);
 		
+		// Online members:
+		sagaPlayer.registerOnline();
+		
 		return sagaPlayer;
 		
 		
@@ -309,7 +342,11 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 		// Unload:
 		SagaLogger.info("Unloading saga player for " + name + ".");
 		removeSagaPlayer(name);
+		if(sagaPlayer.getPlayer() != null) onlinePlayers.remove(sagaPlayer.getPlayer());
 
+		// Online members:
+		sagaPlayer.unregisterOnline();
+		
 		// Unload:
 		sagaPlayer.unload();
 
@@ -324,10 +361,7 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 	private void unloadAllSagaPlayers() {
 
 		
-		Enumeration<String> names = loadedPlayers.keys();
-
-		while (names.hasMoreElements()) {
-			String name = names.nextElement();
+		for (String name : loadedPlayers.keySet()) {
 			SagaPlayer sagaPlayer = unloadSagaPlayer(name);
 			if (sagaPlayer != null) {
 				sagaPlayer.removePlayer();
@@ -336,6 +370,7 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 
 		// Empty the table
 		loadedPlayers.clear();
+		onlinePlayers.clear();
 
 		
 	}
@@ -352,7 +387,7 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 			
 			SagaPlayer sagaPlayer = loadSagaPlayer(players[i].getName());
 			
-			if (sagaPlayer != null) sagaPlayer.setPlayer(players[i]);
+			if (sagaPlayer != null) setOnlinePlayer(players[i], sagaPlayer);
 		
 		}
 
@@ -369,6 +404,30 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 		return loadedPlayers.get(name.toLowerCase());
 	}
 
+	/**
+	 * Gets the saga player for an online player.
+	 * Safe to call from asynchronous events.
+	 * 
+	 * @param player player
+	 * @return saga player, null if not loaded
+	 */
+	public SagaPlayer getSagaPlayer(Player player) {
+		return onlinePlayers.get(player);
+	}
+
+	/**
+	 * Sets the player for a loaded saga player and registers it as online.
+	 * 
+	 * @param player player
+	 * @param sagaPlayer saga player
+	 */
+	public void setOnlinePlayer(Player player, SagaPlayer sagaPlayer) {
+
+		sagaPlayer.setPlayer(player);
+		onlinePlayers.put(player, sagaPlayer);
+		
+	}
+
 	/**
 	 * Gets all loaded saga players.
 	 * 
@@ -399,7 +458,12 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 	 * @return true if the player exists
 	 */
 	public boolean isSagaPlayerExistant(String name) {
+		
+		PlayerIndex index = PlayerIndex.index();
+		if(index != null && index.contains(name)) return true;
+		
 		return SagaPlayer.checkExists(name);
+		
 	}
 
 	/**
@@ -432,30 +496,71 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 	
 	// Saving:
 	/**
-	 * Saves everything.
+	 * Saves everything that changed since the last save.
+	 * Everything is saved once every few saves, changed or not.
+	 * If the save queue is running, only snapshots are taken on the calling thread.
 	 * 
 	 */
 	public void save() {
 		
+		fullSaves--;
+		
+		if(fullSaves <= 0){
+			saveAll();
+		}else{
+			save(false);
+		}
+		
+	}
+	
+	/**
+	 * Saves everything, changed or not.
+	 * 
+	 */
+	public void saveAll() {
+		
+		fullSaves = GeneralConfiguration.config().fullSaveInterval;
+		
+		save(true);
+		
+	}
+	
+	/**
+	 * Saves everything.
+	 * 
+	 * @param all true if unchanged data should also be saved
+	 */
+	private void save(boolean all) {
+		
 		
 		// Save managers:
-		BundleManager.save();
-		FactionManager.save();
+		BundleManager.save(all);
+		FactionManager.save(all);
 		FactionClaimManager.save();
-		SiegeManager.save();
-		WarManager.save();
-		StatisticsManager.save();
+		SiegeManager.save(all);
+		WarManager.save(all);
+		StatisticsManager.save(all);
 
 
 		// Save players:
-		Enumeration<SagaPlayer> sagaPlayers = loadedPlayers.elements();
-		while (sagaPlayers.hasMoreElements()) {
+		int skipped = 0;
+		for (SagaPlayer sagaPlayer : loadedPlayers.values()) {
+			
+			if(!all && !sagaPlayer.isDirty()){
+				skipped++;
+				continue;
+			}
 			
-			SagaPlayer sagaPlayer = sagaPlayers.nextElement();
 			sagaPlayer.save();
 			
 		}
 		
+		// Save player index:
+		PlayerIndex.save(all);
+		
+		// Inform:
+		if(skipped > 0) SagaLogger.info("Skipped " + skipped + " unchanged players.");
+		
 		
 	}
 
@@ -540,7 +645,7 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 
 			try {
 
-				commandMap.execute(split, player, this, getLoadedPlayer(player.getName()));
+				commandMap.execute(split, player, this, getSagaPlayer(player));
 				SagaLogger.info("[Saga Command] " + player.getName() + ": " + command);
 
 			}
@@ -619,12 +724,9 @@ public class Saga extends JavaPlugin implements MinuteTicker {
 	public SagaPlayer matchPlayer(String name) throws SagaPlayerNotLoadedException {
 
 		
-		Enumeration<String> players = loadedPlayers.keys();
 		String lcaseName = name.toLowerCase();
 
-		while (players.hasMoreElements()) {
-
-			String playerName = players.nextElement();
+		for (String playerName : loadedPlayers.keySet()) {
 
 			if (playerName.toLowerCase().contains(lcaseName)) {
 
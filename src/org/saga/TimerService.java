@@ -0,0 +1,272 @@
+package org.saga;
+
+import org.saga.Clock.PeriodicTicker;
+
+/**
+ * Shared timer for energy regeneration and ability cooldowns.
+ * Due ticks are kept in a binary heap and advanced by a single clock tick.
+ *
+ */
+public class TimerService implements PeriodicTicker{
+
+
+	/**
+	 * Initial heap capacity.
+	 */
+	private final static int INITIAL_CAPACITY = 64;
+
+
+	/**
+	 * Instance.
+	 */
+	private static TimerService instance;
+
+	/**
+	 * Gets the timer service.
+	 *
+	 * @return timer service
+	 */
+	public static TimerService service() {
+		return instance;
+	}
+
+
+	/**
+	 * Current tick.
+	 */
+	private long now = 0;
+
+	/**
+	 * Due ticks, heap ordered.
+	 */
+	private long[] dues = new long[INITIAL_CAPACITY];
+
+	/**
+	 * Timed entries, in the same order as due ticks.
+	 */
+	private TimedEntry[] timeds = new TimedEntry[INITIAL_CAPACITY];
+
+	/**
+	 * Heap size, includes cancelled entries.
+	 */
+	private int size = 0;
+
+	/**
+	 * Clock timer.
+	 */
+	private Clock.Timer timer;
+
+
+
+	// Scheduling:
+	/**
+	 * Schedules an entry. Replaces any earlier schedule for the same entry.
+	 *
+	 * @param timed timed entry
+	 * @param delay delay in ticks
+	 */
+	public void schedule(TimedEntry timed, int delay) {
+
+
+		if(delay < 1) delay = 1;
+
+		long due = now + delay;
+		timed.due = due;
+		push(due, timed);
+
+
+	}
+
+	/**
+	 * Cancels an entry.
+	 *
+	 * @param timed timed entry
+	 */
+	public void cancel(TimedEntry timed) {
+		timed.due = -1;
+	}
+
+	/**
+	 * Checks if an entry is scheduled.
+	 *
+	 * @param timed timed entry
+	 * @return true if scheduled
+	 */
+	public boolean isScheduled(TimedEntry timed) {
+		return timed.due != -1;
+	}
+
+
+
+	// Ticking:
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.saga.Clock.PeriodicTicker#clockTick()
+	 */
+	@Override
+	public boolean clockTick() {
+
+
+		now++;
+
+		while(size > 0 && dues[0] <= now){
+
+			long due = dues[0];
+			TimedEntry timed = timeds[0];
+			pop();
+
+			// Cancelled or rescheduled:
+			if(timed.due != due) continue;
+
+			timed.due = -1;
+
+			int next = timed.timerDue();
+			if(next > 0) schedule(timed, next);
+
+		}
+
+		return true;
+
+
+	}
+
+
+
+	// Heap:
+	/**
+	 * Adds an entry to the heap.
+	 *
+	 * @param due due tick
+	 * @param timed timed entry
+	 */
+	private void push(long due, TimedEntry timed) {
+
+
+		if(size == dues.length){
+
+			long[] newDues = new long[size * 2];
+			TimedEntry[] newTimeds = new TimedEntry[size * 2];
+			System.arraycopy(dues, 0, newDues, 0, size);
+			System.arraycopy(timeds, 0, newTimeds, 0, size);
+			dues = newDues;
+			timeds = newTimeds;
+
+		}
+
+		// Sift up:
+		int i = size++;
+		while(i > 0){
+
+			int parent = (i - 1) >> 1;
+			if(dues[parent] <= due) break;
+
+			dues[i] = dues[parent];
+			timeds[i] = timeds[parent];
+			i = parent;
+
+		}
+
+		dues[i] = due;
+		timeds[i] = timed;
+
+
+	}
+
+	/**
+	 * Removes the earliest entry from the heap.
+	 *
+	 */
+	private void pop() {
+
+
+		size--;
+		long due = dues[size];
+		TimedEntry timed = timeds[size];
+		timeds[size] = null;
+
+		if(size == 0) return;
+
+		// Sift down:
+		int i = 0;
+		while(true){
+
+			int child = 2 * i + 1;
+			if(child >= size) break;
+			if(child + 1 < size && dues[child + 1] < dues[child]) child++;
+			if(due <= dues[child]) break;
+
+			dues[i] = dues[child];
+			timeds[i] = timeds[child];
+			i = child;
+
+		}
+
+		dues[i] = due;
+		timeds[i] = timed;
+
+
+	}
+
+
+
+	// Load unload:
+	/**
+	 * Loads the timer service.
+	 *
+	 */
+	public static void load() {
+
+		TimerService service = new TimerService();
+		service.timer = Clock.clock().enablePeriodicTick(service, 1);
+		instance = service;
+
+	}
+
+	/**
+	 * Unloads the timer service.
+	 *
+	 */
+	public static void unload() {
+
+
+		instance.timer.cancel();
+
+		// Unschedule:
+		for (int i = 0; i < instance.size; i++) {
+			instance.timeds[i].due = -1;
+		}
+
+		instance = null;
+
+
+	}
+
+
+
+	// Types:
+	/**
+	 * Entry that can be scheduled. Keeps its own due tick, so stale heap entries are recognised without lookups.
+	 *
+	 */
+	public static abstract class TimedEntry{
+
+
+		/**
+		 * Due tick, -1 if not scheduled.
+		 */
+		private long due = -1;
+
+
+		/**
+		 * Called when the entry is due.
+		 *
+		 * @return ticks until the entry is due again, 0 if done
+		 */
+		public abstract int timerDue();
+
+
+	}
+
+
+}
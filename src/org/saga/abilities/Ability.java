@@ -9,8 +9,9 @@ import org.bukkit.event.player.PlayerShearEntityEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.saga.Clock;
-import org.saga.Clock.SecondTicker;
 import org.saga.SagaLogger;
+import org.saga.TimerService;
+import org.saga.TimerService.TimedEntry;
 import org.saga.abilities.AbilityDefinition.ActivationAction;
 import org.saga.config.AbilityConfiguration;
 import org.saga.exceptions.InvalidAbilityException;
@@ -22,7 +23,7 @@ import org.saga.saveload.SagaCustomSerialization;
 import org.saga.statistics.StatisticsManager;
 import org.saga.utility.chat.ChatUtil;
 
-public abstract class Ability extends SagaCustomSerialization implements SecondTicker{
+public abstract class Ability extends SagaCustomSerialization {
 
 
 	/**
@@ -55,6 +56,11 @@ public abstract class Ability extends SagaCustomSerialization implements SecondT
 	 */
 	transient private boolean clock;
 	
+	/**
+	 * Countdown timer entry.
+	 */
+	transient private TimedEntry timer = null;
+	
 	/**
 	 * Cooldown last value.
 	 */
@@ -159,7 +165,7 @@ public abstract class Ability extends SagaCustomSerialization implements SecondT
 		// Clock not running:
 		else{
 			clock = checkClock();
-			if(clock) Clock.clock().enableSecondTick(this);
+			if(clock) TimerService.service().schedule(getTimer(), Clock.SECOND);
 		}
 		
 		return clock;
@@ -177,26 +183,47 @@ public abstract class Ability extends SagaCustomSerialization implements SecondT
 		
 	}
 	
-	/* 
-	 * (non-Javadoc)
+	/**
+	 * Gets the countdown timer entry.
 	 * 
-	 * @see org.saga.Clock.SecondTicker#clockSecondTick()
+	 * @return timer entry
 	 */
-	@Override
-	public boolean clockSecondTick() {
+	private TimedEntry getTimer() {
+		
+		if(timer == null) timer = new TimedEntry() {
+			@Override
+			public int timerDue() {
+				return countDown();
+			}
+		};
+		return timer;
+		
+	}
+	
+	/**
+	 * Counts down every second.
+	 * 
+	 * @return ticks until the next count, 0 if done
+	 */
+	private int countDown() {
 		
 		if(cooldown == 1 && sagaLiving instanceof SagaPlayer){
 			((SagaPlayer) sagaLiving).message(AbilityMessages.cooldownEnd(this));
 		}
 		
+		boolean ended = cooldown == 1 || active == 1;
+		
 		if(cooldown > 0) cooldown --;
 		if(active > 0) active --;
 		
+		// Saved when a countdown ends:
+		if(ended && sagaLiving != null) sagaLiving.markDirty();
+		
 		// Clock state:
-		return updateClock();
+		return updateClock() ? Clock.SECOND : 0;
 		
 	}
-
+	
 	
 	
 	// Parameters:
@@ -396,6 +423,7 @@ public abstract class Ability extends SagaCustomSerialization implements SecondT
 	protected void startCooldown() {
 
 		this.cooldown = definition.getCooldown(getScore());
+		if(sagaLiving != null) sagaLiving.markDirty();
 		
 		// Update clock:
 		updateClock();
@@ -1,7 +1,13 @@
 package org.saga.abilities;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map.Entry;
 
+import org.bukkit.Material;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.entity.EntityTargetEvent;
 import org.bukkit.event.entity.FoodLevelChangeEvent;
@@ -15,11 +21,32 @@ import org.saga.player.SagaLiving;
 public class AbilityManager {
 
 	
+	/**
+	 * Handled triggers, by ability class.
+	 */
+	private static final HashMap<Class<?>, EnumSet<Trigger>> HANDLED_TRIGGERS = new HashMap<Class<?>, EnumSet<Trigger>>();
+	
+	
 	/**
 	 * All abilities.
 	 */
 	private HashSet<Ability> abilities;
 	
+	/**
+	 * Abilities that handle a trigger, by trigger ordinal.
+	 */
+	private Ability[][] dispatch;
+
+	/**
+	 * Interact abilities without item restrictions, by action ordinal.
+	 */
+	private Ability[][] interactAny;
+	
+	/**
+	 * Interact abilities with item restrictions, by action ordinal and item.
+	 */
+	private ArrayList<EnumMap<Material, Ability[]>> interactItem;
+	
 	/**
 	 * Saga living entity.
 	 */
@@ -37,6 +64,7 @@ public class AbilityManager {
 		
 		this.sagaLiving = sagaLiving;
 		abilities = new HashSet<Ability>();
+		index();
 		
 	}
 	
@@ -56,6 +84,116 @@ public class AbilityManager {
 			
 		}
 		
+		index();
+		
+	}
+	
+	/**
+	 * Builds the dispatch tables from the handled triggers.
+	 * 
+	 */
+	private void index() {
+		
+		
+		Trigger[] triggers = Trigger.values();
+		ActivationAction[] actions = ActivationAction.values();
+		
+		ArrayList<ArrayList<Ability>> dispatch = new ArrayList<ArrayList<Ability>>();
+		for (int i = 0; i < triggers.length; i++) {
+			dispatch.add(new ArrayList<Ability>());
+		}
+		
+		ArrayList<ArrayList<Ability>> interactAny = new ArrayList<ArrayList<Ability>>();
+		ArrayList<EnumMap<Material, ArrayList<Ability>>> interactItem = new ArrayList<EnumMap<Material,ArrayList<Ability>>>();
+		for (int i = 0; i < actions.length; i++) {
+			interactAny.add(new ArrayList<Ability>());
+			interactItem.add(new EnumMap<Material, ArrayList<Ability>>(Material.class));
+		}
+		
+		for (Ability ability : abilities) {
+			
+			EnumSet<Trigger> handled = getHandledTriggers(ability.getClass());
+			
+			for (Trigger trigger : handled) {
+				dispatch.get(trigger.ordinal()).add(ability);
+			}
+			
+			// Interact by action and item:
+			if(!handled.contains(Trigger.INTERACT)) continue;
+			
+			int action = ability.getDefinition().getActivationAction().ordinal();
+			HashSet<Material> restrictions = ability.getDefinition().getItemRestrictions();
+			
+			if(restrictions.size() == 0){
+				interactAny.get(action).add(ability);
+				continue;
+			}
+			
+			for (Material material : restrictions) {
+				
+				ArrayList<Ability> itemAbilities = interactItem.get(action).get(material);
+				if(itemAbilities == null){
+					itemAbilities = new ArrayList<Ability>();
+					interactItem.get(action).put(material, itemAbilities);
+				}
+				itemAbilities.add(ability);
+				
+			}
+			
+		}
+		
+		// Arrays:
+		this.dispatch = new Ability[triggers.length][];
+		for (int i = 0; i < triggers.length; i++) {
+			this.dispatch[i] = dispatch.get(i).toArray(new Ability[0]);
+		}
+		
+		this.interactAny = new Ability[actions.length][];
+		this.interactItem = new ArrayList<EnumMap<Material,Ability[]>>();
+		for (int i = 0; i < actions.length; i++) {
+			
+			this.interactAny[i] = interactAny.get(i).toArray(new Ability[0]);
+			
+			EnumMap<Material, Ability[]> itemAbilities = new EnumMap<Material, Ability[]>(Material.class);
+			for (Entry<Material, ArrayList<Ability>> entry : interactItem.get(i).entrySet()) {
+				itemAbilities.put(entry.getKey(), entry.getValue().toArray(new Ability[0]));
+			}
+			this.interactItem.add(itemAbilities);
+			
+		}
+		
+		
+	}
+	
+	/**
+	 * Gets the triggers an ability class handles.
+	 * A trigger is handled if its pre trigger is overridden.
+	 * 
+	 * @param abilityClass ability class
+	 * @return handled triggers
+	 */
+	private static EnumSet<Trigger> getHandledTriggers(Class<? extends Ability> abilityClass) {
+
+		
+		EnumSet<Trigger> handled = HANDLED_TRIGGERS.get(abilityClass);
+		if(handled != null) return handled;
+		
+		handled = EnumSet.noneOf(Trigger.class);
+		for (Trigger trigger : Trigger.values()) {
+			
+			try {
+				if(abilityClass.getMethod(trigger.preTrigger, trigger.eventClass).getDeclaringClass() != Ability.class) handled.add(trigger);
+			}
+			catch (NoSuchMethodException e) {
+				handled.add(trigger);
+			}
+			
+		}
+		
+		HANDLED_TRIGGERS.put(abilityClass, handled);
+		return handled;
+		
+		
 	}
 
 	/**
@@ -78,13 +216,26 @@ public class AbilityManager {
 		}
 		if(action == null) return;
 		
-		for (Ability ability : abilities) {
+		// Any item:
+		Ability[] abilities = interactAny[action.ordinal()];
+		for (int i = 0; i < abilities.length; i++) {
+			
+			if(abilities[i].handleInteractPreTrigger(event)){
+				
+				if(abilities[i].triggerInteract(event)) abilities[i].handleAfterTrigger();
+				
+			}
 			
-			if(ability.getDefinition().getActivationAction() != action) continue;
+		}
+		
+		// Held item:
+		abilities = interactItem.get(action.ordinal()).get(event.getMaterial());
+		if(abilities == null) return;
+		for (int i = 0; i < abilities.length; i++) {
 			
-			if(ability.handleInteractPreTrigger(event)){
+			if(abilities[i].handleInteractPreTrigger(event)){
 				
-				if(ability.triggerInteract(event)) ability.handleAfterTrigger();
+				if(abilities[i].triggerInteract(event)) abilities[i].handleAfterTrigger();
 				
 			}
 			
@@ -101,11 +252,12 @@ public class AbilityManager {
 	public void onAttack(SagaDamageEvent event) {
 
 		
-		for (Ability ability : abilities) {
+		Ability[] abilities = dispatch[Trigger.ATTACK.ordinal()];
+		for (int i = 0; i < abilities.length; i++) {
 			
-			if(ability.handleAttackPreTrigger(event)){
+			if(abilities[i].handleAttackPreTrigger(event)){
 				
-				if(ability.triggerAttack(event)) ability.handleAfterTrigger();
+				if(abilities[i].triggerAttack(event)) abilities[i].handleAfterTrigger();
 				
 			}
 			
@@ -122,11 +274,12 @@ public class AbilityManager {
 	public void onDefend(SagaDamageEvent event) {
 
 		
-		for (Ability ability : abilities) {
+		Ability[] abilities = dispatch[Trigger.DEFEND.ordinal()];
+		for (int i = 0; i < abilities.length; i++) {
 			
-			if(ability.handleDefendPreTrigger(event)){
+			if(abilities[i].handleDefendPreTrigger(event)){
 				
-				if(ability.triggerDefend(event)) ability.handleAfterTrigger();
+				if(abilities[i].triggerDefend(event)) abilities[i].handleAfterTrigger();
 				
 			}
 			
@@ -143,11 +296,12 @@ public class AbilityManager {
 	public void onProjectileHit(ProjectileHitEvent event) {
 
 		
-		for (Ability ability : abilities) {
+		Ability[] abilities = dispatch[Trigger.PROJECTILE_HIT.ordinal()];
+		for (int i = 0; i < abilities.length; i++) {
 			
-			if(ability.handleProjectileHitPreTrigger(event)){
+			if(abilities[i].handleProjectileHitPreTrigger(event)){
 				
-				if(ability.triggerProjectileHit(event)) ability.handleAfterTrigger();
+				if(abilities[i].triggerProjectileHit(event)) abilities[i].handleAfterTrigger();
 				
 			}
 			
@@ -163,11 +317,12 @@ public class AbilityManager {
 	 */
 	public void onShear(PlayerShearEntityEvent event) {
 
-		for (Ability ability : abilities) {
+		Ability[] abilities = dispatch[Trigger.SHEAR.ordinal()];
+		for (int i = 0; i < abilities.length; i++) {
 			
-			if(ability.handleShearPreTrigger(event)){
+			if(abilities[i].handleShearPreTrigger(event)){
 				
-				if(ability.triggerShear(event)) ability.handleAfterTrigger();
+				if(abilities[i].triggerShear(event)) abilities[i].handleAfterTrigger();
 				
 			}
 			
@@ -182,11 +337,12 @@ public class AbilityManager {
 	 */
 	public void onTargeted(EntityTargetEvent event) {
 
-		for (Ability ability : abilities) {
+		Ability[] abilities = dispatch[Trigger.TARGETED.ordinal()];
+		for (int i = 0; i < abilities.length; i++) {
 			
-			if(ability.handleTargetedPreTrigger(event)){
+			if(abilities[i].handleTargetedPreTrigger(event)){
 				
-				if(ability.triggerTargeted(event)) ability.handleAfterTrigger();
+				if(abilities[i].triggerTargeted(event)) abilities[i].handleAfterTrigger();
 				
 			}
 			
@@ -201,11 +357,12 @@ public class AbilityManager {
 	 */
 	public void onFoodLevelChange(FoodLevelChangeEvent event) {
 
-		for (Ability ability : abilities) {
+		Ability[] abilities = dispatch[Trigger.FOOD_LEVEL_CHANGE.ordinal()];
+		for (int i = 0; i < abilities.length; i++) {
 			
-			if(ability.handleFoodLevelChangePreTrigger(event)){
+			if(abilities[i].handleFoodLevelChangePreTrigger(event)){
 				
-				if(ability.triggerFoodLevelChange(event)) ability.handleAfterTrigger();
+				if(abilities[i].triggerFoodLevelChange(event)) abilities[i].handleAfterTrigger();
 				
 			}
 			
@@ -226,4 +383,48 @@ public class AbilityManager {
 	}
 	
 	
+	
+	// Types:
+	/**
+	 * Ability triggers.
+	 * 
+	 */
+	private static enum Trigger{
+		
+		
+		INTERACT("handleInteractPreTrigger", PlayerInteractEvent.class),
+		ATTACK("handleAttackPreTrigger", SagaDamageEvent.class),
+		DEFEND("handleDefendPreTrigger", SagaDamageEvent.class),
+		PROJECTILE_HIT("handleProjectileHitPreTrigger", ProjectileHitEvent.class),
+		SHEAR("handleShearPreTrigger", PlayerShearEntityEvent.class),
+		TARGETED("handleTargetedPreTrigger", EntityTargetEvent.class),
+		FOOD_LEVEL_CHANGE("handleFoodLevelChangePreTrigger", FoodLevelChangeEvent.class);
+		
+		
+		/**
+		 * Pre trigger method name.
+		 */
+		private final String preTrigger;
+		
+		/**
+		 * Event class.
+		 */
+		private final Class<?> eventClass;
+		
+		
+		/**
+		 * Sets the pre trigger method.
+		 * 
+		 * @param preTrigger pre trigger method name
+		 * @param eventClass event class
+		 */
+		private Trigger(String preTrigger, Class<?> eventClass) {
+			this.preTrigger = preTrigger;
+			this.eventClass = eventClass;
+		}
+		
+		
+	}
+	
+	
 }
@@ -113,8 +113,8 @@ public class Counterattack extends Ability{
 		
 		if(event.sagaAttacker instanceof SagaPlayer){
 			
-			damage*= VanillaConfiguration.getArmourMultiplier(edbeEvent, event.sagaAttacker.getWrapped());
-			damage*= VanillaConfiguration.getEPFMultiplier(edbeEvent, event.sagaAttacker.getWrapped());
+			damage*= event.sagaAttacker.getArmourMultiplier(edbeEvent);
+			damage*= event.sagaAttacker.getEPFMultiplier(edbeEvent);
 			if(VanillaConfiguration.checkBlocking(edbeEvent, event.sagaAttacker.getWrapped()))
 				damage*= VanillaConfiguration.getBlockingMultiplier();
 			
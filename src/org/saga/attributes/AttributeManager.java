@@ -1,6 +1,8 @@
 package org.saga.attributes;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map.Entry;
 import java.util.Random;
 
 import org.bukkit.Effect;
@@ -9,6 +11,7 @@ import org.saga.config.AttributeConfiguration;
 import org.saga.listeners.events.SagaDamageEvent;
 import org.saga.listeners.events.SagaLootEvent;
 import org.saga.player.SagaLiving;
+import org.saga.utility.TwoPointFunction;
 
 public class AttributeManager {
 
@@ -25,9 +28,34 @@ public class AttributeManager {
 	private SagaLiving sagaLiving;
 	
 	/**
-	 * Attributes.
+	 * Configuration the modifiers were calculated for.
 	 */
-	private ArrayList<Attribute> attributes;
+	private AttributeConfiguration config = null;
+	
+	/**
+	 * True if the modifiers are up to date.
+	 */
+	private boolean valid = false;
+	
+	/**
+	 * Attack modifiers, by parameter ordinal.
+	 */
+	private double[] attack;
+	
+	/**
+	 * Defend modifiers, by parameter ordinal.
+	 */
+	private double[] defend;
+	
+	/**
+	 * Passive modifiers, by parameter ordinal.
+	 */
+	private double[] passive;
+	
+	/**
+	 * Tool handling modifiers.
+	 */
+	private EnumMap<Material, Double> handling;
 	
 	
 	/**
@@ -38,7 +66,6 @@ public class AttributeManager {
 	public AttributeManager(SagaLiving sagaLiving) {
 
 		this.sagaLiving = sagaLiving;
-		this.attributes = AttributeConfiguration.config().getAttributes();
 
 	}
 
@@ -239,74 +266,119 @@ public class AttributeManager {
 	
 	// Modifiers:
 	/**
-	 * Sums all attack modifiers.
+	 * Gets the attack modifier.
 	 * 
 	 * @param parameter parameter
 	 * @return sum of attack modifiers
 	 */
 	private double getAttackModifier(AttributeParameter parameter) {
-
-		double modifier = 0.0;
 		
-		for (Attribute attribute : attributes) {
-			modifier+= attribute.getAttackModifier(parameter, sagaLiving.getAttributeScore(attribute.getName()));
-		}
-		
-		return modifier;
+		refresh();
+		return attack[parameter.ordinal()];
 		
 	}
 
 	/**
-	 * Sums all defend modifiers.
+	 * Gets the defend modifier.
 	 * 
 	 * @param parameter parameter
-	 * @return sum of attack modifiers
+	 * @return sum of defend modifiers
 	 */
 	private double getDefendModifier(AttributeParameter parameter) {
-
-		double modifier = 0.0;
-		
-		for (Attribute attribute : attributes) {
-			modifier+= attribute.getDefendModifier(parameter, sagaLiving.getAttributeScore(attribute.getName()));
-		}
 		
-		return modifier;
+		refresh();
+		return defend[parameter.ordinal()];
 		
 	}
 	
 	/**
-	 * Sums all passive modifiers.
+	 * Gets the passive modifier.
 	 * 
 	 * @param parameter parameter
-	 * @return sum of attack modifiers
+	 * @return sum of passive modifiers
 	 */
 	private double getPassiveModifier(AttributeParameter parameter) {
-
-		double modifier = 0.0;
 		
-		for (Attribute attribute : attributes) {
-			modifier+= attribute.getPassiveModifier(parameter, sagaLiving.getAttributeScore(attribute.getName()));
-		}
-		
-		return modifier;
+		refresh();
+		return passive[parameter.ordinal()];
 		
 	}
 	
 	/**
-	 * Sums all tool handling modifiers.
+	 * Gets the tool handling modifier.
 	 * 
 	 * @param material tool material
 	 * @return sum of tool handling modifiers
 	 */
 	private double getToolHandlingModifier(Material material) {
 
-		double modifier = 0.0;
+		refresh();
+		
+		if(material == null) return 0.0;
+		Double modifier = handling.get(material);
+		if(modifier == null) return 0.0;
+		
+		return modifier;
+		
+	}
+	
+	
+	
+	// Precomputing:
+	/**
+	 * Forces the modifiers to be calculated again on next use.
+	 * Called when scores, roles or ranks change.
+	 * 
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+	
+	/**
+	 * Calculates the modifiers if scores or configuration changed.
+	 * 
+	 */
+	private void refresh() {
+
+		
+		AttributeConfiguration config = AttributeConfiguration.config();
+		if(valid && config == this.config) return;
+		
+		this.config = config;
+		ArrayList<Attribute> attributes = config.getAttributes();
+		
+		AttributeParameter[] parameters = AttributeParameter.values();
+		double[] attack = new double[parameters.length];
+		double[] defend = new double[parameters.length];
+		double[] passive = new double[parameters.length];
+		EnumMap<Material, Double> handling = new EnumMap<Material, Double>(Material.class);
 		
 		for (Attribute attribute : attributes) {
-			modifier+= attribute.getToolHandlingModifier(material, sagaLiving.getAttributeScore(attribute.getName()));
+			
+			Integer score = sagaLiving.getAttributeScore(attribute.getName());
+			
+			for (int i = 0; i < parameters.length; i++) {
+				attack[i]+= attribute.getAttackModifier(parameters[i], score);
+				defend[i]+= attribute.getDefendModifier(parameters[i], score);
+				passive[i]+= attribute.getPassiveModifier(parameters[i], score);
+			}
+			
+			for (Entry<Material, TwoPointFunction> entry : attribute.getAllHandlingEntries()) {
+				
+				Double modifier = handling.get(entry.getKey());
+				if(modifier == null) modifier = 0.0;
+				handling.put(entry.getKey(), modifier + entry.getValue().value(score));
+				
+			}
+			
 		}
 		
-		return modifier;
+		this.attack = attack;
+		this.defend = defend;
+		this.passive = passive;
+		this.handling = handling;
+		valid = true;
+		
 		
 	}
 	
@@ -330,13 +402,7 @@ public class AttributeManager {
 	public int getHealthModifier() {
 
 		
-		double modifier = 0.0;
-		
-		for (Attribute attribute : attributes) {
-			modifier+= attribute.getPassiveModifier(AttributeParameter.HEALTH_MODIFIER, sagaLiving.getAttributeScore(attribute.getName()));
-		}
-		
-		return (int)modifier;
+		return (int)getPassiveModifier(AttributeParameter.HEALTH_MODIFIER);
 		
 		
 	}
@@ -158,6 +158,7 @@ public class Arena extends Building implements SecondTicker{
 		}
 		
 		foundPlayer.increaseKills();
+		markDirty();
 		
 		
 		
@@ -191,6 +192,7 @@ public class Arena extends Building implements SecondTicker{
 		}
 		
 		foundPlayer.increasePoints(points);
+		markDirty();
 		
 		
 	}
@@ -222,6 +224,7 @@ public class Arena extends Building implements SecondTicker{
 		}
 		
 		foundPlayer.increaseDeaths();
+		markDirty();
 			
 		
 	}
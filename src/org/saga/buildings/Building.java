@@ -273,6 +273,18 @@ public abstract class Building extends SagaCustomSerialization implements Daytim
 		
 	}
 	
+	/**
+	 * Marks the building for saving.
+	 * Buildings are saved with their bundle.
+	 * 
+	 */
+	public void markDirty() {
+		
+		Bundle bundle = getChunkBundle();
+		if(bundle != null) bundle.markDirty();
+		
+	}
+	
 	/**
 	 * Collects all similar buildings.
 	 * 
@@ -545,6 +557,7 @@ public abstract class Building extends SagaCustomSerialization implements Daytim
 			return;
 		}
 		signs.add(buildingSign);
+		markDirty();
 
 
 	}
@@ -571,6 +584,7 @@ public abstract class Building extends SagaCustomSerialization implements Daytim
 		
 		// Remove:
 		signs.remove(buildingSign);
+		markDirty();
 		
 		
 	}
@@ -649,6 +663,7 @@ public abstract class Building extends SagaCustomSerialization implements Daytim
 
 		storage.add(storeArea);
 		storeArea.setSize(definition.getStorageSize());
+		markDirty();
 		
 	}
 	
@@ -660,6 +675,7 @@ public abstract class Building extends SagaCustomSerialization implements Daytim
 	public void removeStorageArea(StorageArea storeArea) {
 
 		storage.remove(storeArea);
+		markDirty();
 
 	}
 	
@@ -703,12 +719,27 @@ public abstract class Building extends SagaCustomSerialization implements Daytim
 			
 			if(storageArea.checkBelongs(block)){
 				storage.remove(storageArea);
+				markDirty();
 			}
 			
 		}
 	}
 	
 	
+	/**
+	 * Marks a storage block as changed.
+	 * 
+	 * @param block block
+	 */
+	public void invalidateStorage(Block block) {
+
+		for (StorageArea storageArea : storage) {
+			storageArea.invalidate(block);
+		}
+		
+	}
+	
+	
 	/**
 	 * Gets the amount of storage areas used.
 	 * 
@@ -897,7 +928,10 @@ public abstract class Building extends SagaCustomSerialization implements Daytim
 		if(!isEnabled()) return false;
 		
 		// Perform:
-		if(daytime == getDefinition().getPerformTime()) perform();
+		if(daytime == getDefinition().getPerformTime()){
+			perform();
+			markDirty();
+		}
 		
 		return true;
 		
@@ -257,6 +257,7 @@ public class CrumbleArena extends Building implements SecondTicker{
 		}
 		
 		foundPlayer.increaseWins();
+		markDirty();
 		
 		
 		
@@ -289,6 +290,7 @@ public class CrumbleArena extends Building implements SecondTicker{
 		}
 		
 		foundPlayer.increaseLosses();
+		markDirty();
 			
 		
 	}
@@ -330,6 +332,7 @@ public class CrumbleArena extends Building implements SecondTicker{
 		rounds = getMaxRounds();
 		remaining = 0;
 		countdown = 5;
+		markDirty();
 		
 		// Add players:
 		players = new HashSet<String>();
@@ -372,6 +375,7 @@ public class CrumbleArena extends Building implements SecondTicker{
 			
 		}
 		players.clear();
+		markDirty();
 		
 		// Fix arena:
 		createArena();
@@ -786,6 +790,7 @@ public class CrumbleArena extends Building implements SecondTicker{
 		if(y != null) removeArena();
 		this.y = y;
 		createArena();
+		markDirty();
 		
 	}
 	
@@ -796,6 +801,7 @@ public class CrumbleArena extends Building implements SecondTicker{
 	 */
 	public void setKickLocation(SagaLocation loc) {
 		this.kickLocation = loc;
+		markDirty();
 	}
 	
 	
@@ -830,6 +836,7 @@ public class CrumbleArena extends Building implements SecondTicker{
 		if(remaining <= 0) remaining = getRoundDuration();
 		else return rounds > 0;
 		rounds--;
+		markDirty();
 		
 		// Blocks:
 		ArrayList<Block> blocks = getAllArenaBlocks();
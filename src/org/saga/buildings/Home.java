@@ -89,6 +89,7 @@ public class Home extends Building {
 		}
 		
 		residents.add(playerName.toLowerCase());
+		markDirty();
 		
 		
 	}
@@ -109,6 +110,7 @@ public class Home extends Building {
 		
 		residents.remove(playerName);
 		residents.remove(playerName.toLowerCase());
+		markDirty();
 		
 		
 	}
@@ -156,6 +156,7 @@ public class TownSquare extends Building implements SecondTicker{
 	 */
 	public void setSpawn(SagaLocation spawn) {
 		this.spawn = spawn;
+		markDirty();
 	}
 	
 	
@@ -265,6 +265,7 @@ public class TradingPost extends ProductionBuilding implements DaytimeTicker{
 	public void notifyImport(Double spent) {
 		
 		importCoins+= spent;
+		markDirty();
 		
 		// Refresh signs:
 		refreshSigns();
@@ -279,6 +280,7 @@ public class TradingPost extends ProductionBuilding implements DaytimeTicker{
 	public void notifyExport(Double spent) {
 		
 		exportCoins+= spent;
+		markDirty();
 		
 		// Refresh signs:
 		refreshSigns();
@@ -420,6 +422,7 @@ public class TradingPost extends ProductionBuilding implements DaytimeTicker{
 			}
 			
 			collectedExports[i]+= collectedItem.getAmount();
+			if(collectedItem.getAmount() > 0.0) markDirty();
 			
 		}
 		
@@ -463,6 +466,7 @@ public class TradingPost extends ProductionBuilding implements DaytimeTicker{
 			// Take:
 			collectedExports[i]-= amount;
 			exportsWork[i] = 0.0;
+			markDirty();
 			
 		}
 		
@@ -517,6 +521,7 @@ public class TradingPost extends ProductionBuilding implements DaytimeTicker{
 			
 			item.modifyAmount(-amount);
 			collectedExports[i] = collectedExports[i] + amount;
+			if(amount > 0.0) markDirty();
 			
 		}
 		
@@ -97,10 +97,18 @@ public class Warehouse extends Building{
 			
 			// Remove block:
 			int index = Saga.RANDOM.nextInt(storage.size());
-			Block block = storage.get(index);
+			Block block = storage.remove(index);
+			
+			// Filled since indexed:
+			if(block.getTypeId() != 0){
+				invalidateStorage(block);
+				if(storage.size() == 0) storage = findLowestEmpty();
+				continue;
+			}
+			
 			block.setTypeIdAndData(sagaItem.getType().getId(), sagaItem.getData().byteValue(), false);
+			invalidateStorage(block);
 			sagaItem.modifyAmount(-1);
-			storage.remove(index);
 			
 			// Refresh possible storage:
 			if(storage.size() == 0) storage = findLowestEmpty();
@@ -111,6 +119,7 @@ public class Warehouse extends Building{
 		for (int i = 0; i < buffer.size(); i++) {
 			
 			if(buffer.get(i).checkRepresents(sagaItem)){
+				if(sagaItem.getAmount() != 0.0) markDirty();
 				buffer.get(i).modifyAmount(sagaItem.getAmount());
 				sagaItem.setAmount(0.0);
 				break;
@@ -157,6 +166,7 @@ public class Warehouse extends Building{
 			}
 			
 			chest.update();
+			invalidateStorage(chest.getBlock());
 			
 		}
 
@@ -164,6 +174,7 @@ public class Warehouse extends Building{
 		for (int i = 0; i < buffer.size(); i++) {
 			
 			if(buffer.get(i).checkRepresents(sagaItem)){
+				if(sagaItem.getAmount() != 0.0) markDirty();
 				buffer.get(i).modifyAmount(sagaItem.getAmount());
 				sagaItem.setAmount(0.0);
 				break;
@@ -231,6 +242,8 @@ public class Warehouse extends Building{
 				
 				if(buffer.get(i).getAmount() <= 0.0) buffer.remove(i);
 				
+				markDirty();
+				
 				break;
 				
 			}
@@ -249,6 +262,7 @@ public class Warehouse extends Building{
 			
 			removedItem.modifyAmount(1.0);
 			block.setType(Material.AIR);
+			invalidateStorage(block);
 				
 		}
 		
@@ -281,6 +295,8 @@ public class Warehouse extends Building{
 				
 				if(buffer.get(i).getAmount() <= 0.0) buffer.remove(i);
 				
+				markDirty();
+				
 				break;
 				
 			}
@@ -305,6 +321,7 @@ public class Warehouse extends Building{
 			removedItem.modifyAmount(mod);
 			
 			chest.update();
+			invalidateStorage(chest.getBlock());
 			
 		}
 		
@@ -339,8 +356,6 @@ public class Warehouse extends Building{
 		
 		double count = 0;
 		
-		ArrayList<Block> possibleStorage = findAllStorage();
-
 		// Buffer:
 		for (int i = 0; i < buffer.size(); i++) {
 			
@@ -354,13 +369,13 @@ public class Warehouse extends Building{
 		}
 		
 		// Loaded:
-		if(getSagaChunk().isLoaded())
-		for (Block block : possibleStorage) {
+		if(getSagaChunk().isLoaded()){
 			
-			if(!countItem.checkRepresents(block)) continue;
+			ArrayList<StorageArea> storages = getStorageAreas();
+			for (StorageArea storageArea : storages) {
+				count+= storageArea.getIndex().countBlocks(countItem.getType().getId(), countItem.getData().byteValue());
+			}
 			
-			count++;
-				
 		}
 		
 		return count;
@@ -379,8 +394,6 @@ public class Warehouse extends Building{
 		
 		double count = 0;
 		
-		ArrayList<Chest> possibleStorage = findChests();
-
 		// Buffer:
 		for (int i = 0; i < buffer.size(); i++) {
 			
@@ -394,18 +407,22 @@ public class Warehouse extends Building{
 		}
 		
 		// Chests:
-		for (int i = 0; i < possibleStorage.size(); i++) {
+		ArrayList<StorageArea> storages = getStorageAreas();
+		for (StorageArea storageArea : storages) {
 			
-			ItemStack[] inventory = possibleStorage.get(i).getInventory().getContents();
+			ArrayList<ItemStack[]> contents = storageArea.getIndex().getChestContents();
 			
-			for (int j = 0; j < inventory.length; j++) {
+			for (ItemStack[] inventory : contents) {
 				
-				if(!countItem.checkRepresents(inventory[j])) continue;
-				count+= inventory[j].getAmount();
+				for (int j = 0; j < inventory.length; j++) {
+					
+					if(inventory[j] == null || !countItem.checkRepresents(inventory[j])) continue;
+					count+= inventory[j].getAmount();
+					
+				}
 				
 			}
 			
-			
 		}
 		
 		return count;
@@ -465,13 +482,7 @@ public class Warehouse extends Building{
 		ArrayList<StorageArea> storages = getStorageAreas();
 		
 		for (StorageArea storageArea : storages) {
-			
-			ArrayList<Block> blocks = storageArea.getAllStorage();
-		
-			for (Block block : blocks) {
-				if(block.getState() instanceof Chest) possible.add((Chest) block.getState());
-			}
-			
+			possible.addAll(storageArea.getChests());
 		}
 
 		return possible;
@@ -203,6 +203,7 @@ public class ProductionBuilding extends Building{
 				
 				// Offer:
 				resource.offer(collectedItem);
+				if(collectedItem.getAmount() > 0.0) markDirty();
 				
 			}
 			
@@ -231,6 +232,7 @@ public class ProductionBuilding extends Building{
 				sagaItem.setAmount(0.0);
 			}
 			produced[i] = sagaItem;
+			if(sagaItem.getAmount() > 0.0) markDirty();
 			
 		}
 		
@@ -281,6 +283,7 @@ public class ProductionBuilding extends Building{
 	 */
 	public void offer(SagaItem item) {
 		for (SagaResource resource : resources) resource.offer(item);
+		markDirty();
 	}
 
 	
@@ -314,10 +317,18 @@ public class ProductionBuilding extends Building{
 			
 			// Remove block:
 			int index = Saga.RANDOM.nextInt(possibleStorage.size());
-			Block block = possibleStorage.get(index);
+			Block block = possibleStorage.remove(index);
+			
+			// Filled since indexed:
+			if(block.getTypeId() != 0){
+				invalidateStorage(block);
+				if(possibleStorage.size() == 0) possibleStorage = findLowestEmpty();
+				continue;
+			}
+			
 			block.setTypeIdAndData(sagaItem.getType().getId(), sagaItem.getData().byteValue(), false);
+			invalidateStorage(block);
 			sagaItem.modifyAmount(-1);
-			possibleStorage.remove(index);
 			
 			// Refresh possible storage:
 			if(possibleStorage.size() == 0) possibleStorage = findLowestEmpty();
@@ -350,6 +361,7 @@ public class ProductionBuilding extends Building{
 			if(remaining != null) sagaItem.modifyAmount(remaining.getAmount());
 			
 			chest.update();
+			invalidateStorage(chest.getBlock());
 			
 		}
 		
@@ -389,13 +401,7 @@ public class ProductionBuilding extends Building{
 		ArrayList<StorageArea> storages = getStorageAreas();
 		
 		for (StorageArea storageArea : storages) {
-			
-			ArrayList<Block> blocks = storageArea.getAllStorage();
-		
-			for (Block block : blocks) {
-				if(block.getState() instanceof Chest) possible.add((Chest) block.getState());
-			}
-			
+			possible.addAll(storageArea.getChests());
 		}
 
 		return possible;
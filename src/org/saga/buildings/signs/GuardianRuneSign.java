@@ -174,6 +174,7 @@ public class GuardianRuneSign extends BuildingSign{
 		
 		// Recharges rune:
 		rune.recharge();
+		sagaPlayer.markDirty();
 		
 		// Inform:
 		sagaPlayer.message(PlayerMessages.recharged(rune, price));
@@ -14,7 +14,6 @@ import org.saga.exceptions.InvalidLocationException;
 import org.saga.player.SagaPlayer;
 import org.saga.settlements.BundleManager;
 import org.saga.settlements.SagaChunk;
-import org.saga.shape.BlockFilter;
 import org.saga.shape.RelativeShape;
 import org.saga.shape.RelativeShape.Orientation;
 import org.saga.utility.SagaLocation;
@@ -27,21 +26,6 @@ public class StorageArea {
 	 */
 	private final static RelativeShape SHAPE = createShape();
 	
-	/**
-	 * Filter for empty space.
-	 */
-	private final static BlockFilter EMPTY_FILTER = createEmptyFilter();
-	
-	/**
-	 * Filter for not empty space.
-	 */
-	private final static BlockFilter FULL_FILTER = createFullFilter();
-	
-	/**
-	 * Filter for chests.
-	 */
-	private final static BlockFilter CHEST_FILTER = createChestFilter();
-
 	/**
 	 * Storage are height.
 	 */
@@ -63,6 +47,11 @@ public class StorageArea {
 	 */
 	transient private Integer size;
 	
+	/**
+	 * Content index, null if not created.
+	 */
+	transient private StorageIndex index = null;
+	
 	
 	
 	// Initialisation:
@@ -103,6 +92,7 @@ public class StorageArea {
 		}
 		
 		size = 1;
+		index = null;
 
 		
 	}
@@ -113,7 +103,10 @@ public class StorageArea {
 	 * @param size size
 	 */
 	public void setSize(Integer size) {
+		
+		if(!size.equals(this.size)) index = null;
 		this.size = size;
+		
 	}
 	
 	
@@ -126,18 +119,7 @@ public class StorageArea {
 	 */
 	public boolean checkBelongs(Block pBlock) {
 
-		
-		ArrayList<Block> blocks = SHAPE.getBlocks(anchor.getLocation(), orientation, size);
-		
-		// Check:
-		for (Block block : blocks) {
-			
-			if(block.equals(pBlock)) return true;
-			
-		}
-		
-		return false;
-
+		return getIndex().contains(pBlock);
 		
 	}
 	
@@ -171,7 +153,7 @@ public class StorageArea {
 	public ArrayList<SagaChunk> getSagaChunks() {
 
 		
-		ArrayList<Block> blocks = SHAPE.getBlocks(anchor.getLocation(), orientation, size);
+		ArrayList<Block> blocks = getAllStorage();
 		
 		// Bukkit chunks:
 		HashSet<Chunk> bukkitChunks = new HashSet<Chunk>();
@@ -196,6 +178,30 @@ public class StorageArea {
 	
 	
 	
+	// Index:
+	/**
+	 * Gets the content index. Created on first use.
+	 * 
+	 * @return content index
+	 */
+	public StorageIndex getIndex() {
+
+		if(index == null) index = new StorageIndex(anchor.getLocation(), SHAPE.getOffsets(orientation, size));
+		return index;
+		
+	}
+	
+	/**
+	 * Marks a storage block as changed.
+	 * 
+	 * @param block block
+	 */
+	public void invalidate(Block block) {
+		if(index != null) index.invalidate(block);
+	}
+	
+	
+	
 	// Storage:
 	/**
 	 * Gets all blocks for the storage area.
@@ -204,7 +210,7 @@ public class StorageArea {
 	 */
 	public ArrayList<Block> getAllStorage() {
 
-		return SHAPE.getBlocks(anchor.getLocation(), orientation, size);
+		return getIndex().getBlocks();
 		
 	}
 	
@@ -215,22 +221,7 @@ public class StorageArea {
 	 */
 	public ArrayList<Block> getLowestEmpty() {
 
-		ArrayList<Block> allBlocks = SHAPE.getBlocks(anchor.getLocation(), orientation, size);
-		ArrayList<Block> blocks = new ArrayList<Block>();
-		
-		int ymin = allBlocks.get(0).getY();
-		for (int level = ymin; level <= ymin + HEIGHT; level++) {
-			for (Block block : allBlocks) {
-				
-				if(block.getY() != level) continue;
-				if(!block.isEmpty()) continue;
-				blocks.add(block);
-				
-			}
-			if(blocks.size() > 0) break;
-		}
-		
-		return blocks;
+		return getIndex().getLowestEmpty(HEIGHT);
 		
 	}
 
@@ -241,22 +232,18 @@ public class StorageArea {
 	 */
 	public ArrayList<Block> getHighestFull() {
 
-		ArrayList<Block> allBlocks = SHAPE.getBlocks(anchor.getLocation(), orientation, size);
-		ArrayList<Block> blocks = new ArrayList<Block>();
-		
-		int ymin = allBlocks.get(0).getY();
-		for (int level = ymin + HEIGHT; level >= ymin; level--) {
-			for (Block block : allBlocks) {
-				
-				if(block.getY() != level) continue;
-				if(block.isEmpty()) continue;
-				blocks.add(block);
-				
-			}
-			if(blocks.size() > 0) break;
-		}
+		return getIndex().getHighestFull(HEIGHT);
 		
-		return blocks;
+	}
+	
+	/**
+	 * Gets all chests for the storage area.
+	 * 
+	 * @return storage area chests
+	 */
+	public ArrayList<Chest> getChests() {
+
+		return getIndex().getChests();
 		
 	}
 	
@@ -274,14 +261,21 @@ public class StorageArea {
 		if(!toStore.getType().isBlock()) return toStore;
 		
 		// Add block:
-		ArrayList<Block> blocks = SHAPE.getBlocks(anchor.getLocation(), orientation, size, EMPTY_FILTER);
+		ArrayList<Block> blocks = getIndex().getBlocks(true);
 
 		for (Block storeBlock : blocks) {
 			
 			if(toStore.getAmount() < 1) return toStore;
 			
+			// Filled since indexed:
+			if(storeBlock.getTypeId() != 0){
+				invalidate(storeBlock);
+				continue;
+			}
+			
 			storeBlock.setType(toStore.getType());
 			storeBlock.setData(toStore.getData().getData());
+			invalidate(storeBlock);
 			
 			toStore.setAmount(toStore.getAmount() - 1);
 			
@@ -306,7 +300,7 @@ public class StorageArea {
 		if(!fromStore.getType().isBlock()) return fromStore;
 		
 		// Withdraw block:
-		ArrayList<Block> blocks = SHAPE.getBlocks(anchor.getLocation(), orientation, size, FULL_FILTER);
+		ArrayList<Block> blocks = getIndex().getBlocks(false);
 
 		for (int i = blocks.size() - 1; i >= 0; i--) {
 
@@ -317,6 +311,7 @@ public class StorageArea {
 			if(fromStore.getAmount() >= amount) break;
 			
 			storeBlock.setType(Material.AIR);
+			invalidate(storeBlock);
 			
 			fromStore.setAmount(fromStore.getAmount() + 1);
 			
@@ -341,18 +336,14 @@ public class StorageArea {
 		if(toStore.getType().isBlock()) return toStore;
 		
 		// Get chests:
-		ArrayList<Block> blocks = SHAPE.getBlocks(anchor.getLocation(), orientation, size, CHEST_FILTER);
-		
-		ArrayList<Chest> chests = new ArrayList<Chest>();
-		for (Block block : blocks) {
-			if(block.getState() instanceof Chest) chests.add((Chest) block.getState());
-		}
+		ArrayList<Chest> chests = getChests();
 
 		for (Chest chest : chests) {
 			
 			if(toStore.getAmount() < 1) return toStore;
 			
 			ItemStack remaining = chest.getBlockInventory().addItem(toStore).get(0);
+			invalidate(chest.getBlock());
 			
 			if(remaining == null){
 				toStore.setAmount(0);
@@ -381,12 +372,7 @@ public class StorageArea {
 		if(fromStore.getType().isBlock()) return fromStore;
 		
 		// Get chests:
-		ArrayList<Block> blocks = SHAPE.getBlocks(anchor.getLocation(), orientation, size, CHEST_FILTER);
-		
-		ArrayList<Chest> chests = new ArrayList<Chest>();
-		for (Block block : blocks) {
-			if(block.getState() instanceof Chest) chests.add((Chest) block.getState());
-		}
+		ArrayList<Chest> chests = getChests();
 
 		for (Chest chest : chests) {
 
@@ -396,6 +382,7 @@ public class StorageArea {
 			toRemove.setAmount(amount - toRemove.getAmount());
 			
 			ItemStack remaining = chest.getBlockInventory().removeItem(toRemove).get(0);
+			invalidate(chest.getBlock());
 			
 			if(remaining == null){
 				fromStore.setAmount(amount);
@@ -420,47 +407,14 @@ public class StorageArea {
 	public Integer countStored(ItemStack item) {
 
 		
+		StorageIndex index = getIndex();
 		int amount = 0;
-
-		// Contents:
-		ArrayList<Block> blocks = SHAPE.getBlocks(anchor.getLocation(), orientation, size, FULL_FILTER);
 		
-		for (Block block : blocks) {
-			
-			// Chest:
-			if(block.getState() instanceof Chest){
-				
-				ItemStack[] inventory = ((Chest) block.getState()).getBlockInventory().getContents();
-				for (int i = 0; i < inventory.length; i++) {
-
-					if(inventory[i] == null) continue;
-					
-					// From https://github.com/Bukkit/CraftBukkit/blob/master/src/main/java/org/bukkit/craftbukkit/inventory/CraftInventory.java
-					boolean equals = item.getTypeId() == inventory[i].getTypeId() && item.getDurability() == inventory[i].getDurability() && item.getEnchantments().equals(inventory[i].getEnchantments());
-					
-					if(!equals) continue;
-					
-					amount+= inventory[i].getAmount();
-					
-				}
-				
-			}
-			
-			// Blocks:
-			else{
-				
-				// Material:
-				if(block.getType() != item.getType()) continue;
-
-				// Data:
-				if(block.getData() != item.getData().getData()) continue;
-				
-				amount+= 1;
-				
-			}
-			
-			
-		}
+		// Blocks, chests are counted by contents:
+		if(item.getType() != Material.AIR && item.getType() != Material.CHEST) amount+= index.countBlocks(item.getTypeId(), item.getData().getData());
+		
+		// Contents:
+		amount+= index.countItems(item);
 		
 		return amount;
 		
@@ -580,49 +534,6 @@ public class StorageArea {
 		
 	}
 	
-	/**
-	 * Creates a filter for only air blocks.
-	 * 
-	 * @return filter for only air blocks
-	 */
-	private static BlockFilter createEmptyFilter() {
-
-		BlockFilter filter = new BlockFilter();
-		filter.addMaterial(Material.AIR);
-
-		return filter;
-		
-	}
-	
-	/**
-	 * Creates a filter for only not air blocks.
-	 * 
-	 * @return filter for only not air blocks
-	 */
-	private static BlockFilter createFullFilter() {
-
-		BlockFilter filter = new BlockFilter();
-		filter.addMaterial(Material.AIR);
-		filter.flip();
-		
-		return filter;
-		
-	}
-	
-	/**
-	 * Creates a filter for only chest blocks.
-	 * 
-	 * @return filter for only chest blocks
-	 */
-	private static BlockFilter createChestFilter() {
-
-		BlockFilter filter = new BlockFilter();
-		filter.addMaterial(Material.CHEST);
-		
-		return filter;
-		
-	}
-	
 	
 	
 	// Other:
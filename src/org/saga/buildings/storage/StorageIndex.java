@@ -0,0 +1,570 @@
+package org.saga.buildings.storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Chest;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Block and chest contents of a storage area.
+ * Storage blocks are read again only when marked as changed or when the index is verified.
+ *
+ */
+public class StorageIndex {
+
+
+	/**
+	 * Time between verifications in milliseconds.
+	 */
+	private final static long VERIFY_INTERVAL = 300000;
+
+
+	/**
+	 * World name.
+	 */
+	private final String worldName;
+
+	/**
+	 * Block x coordinates, in storage order.
+	 */
+	private final int[] xs;
+
+	/**
+	 * Block y coordinates, in storage order.
+	 */
+	private final int[] ys;
+
+	/**
+	 * Block z coordinates, in storage order.
+	 */
+	private final int[] zs;
+
+	/**
+	 * Storage order indexes, by packed position.
+	 */
+	private final HashMap<Long, Integer> positions;
+
+	/**
+	 * Lowest y coordinate.
+	 */
+	private final int minY;
+
+
+	/**
+	 * Block type IDs.
+	 */
+	private final int[] typeIds;
+
+	/**
+	 * Block data.
+	 */
+	private final byte[] datas;
+
+	/**
+	 * Chest contents, null if not a chest.
+	 */
+	private final ItemStack[][] contents;
+
+	/**
+	 * Block counts, by packed type ID and data.
+	 */
+	private final HashMap<Integer, Integer> blockCounts = new HashMap<Integer, Integer>();
+
+	/**
+	 * True for blocks that need to be read again.
+	 */
+	private final boolean[] stale;
+
+	/**
+	 * True if any block needs to be read again.
+	 */
+	private boolean anyStale = true;
+
+	/**
+	 * Time of the last verification.
+	 */
+	private long verified = 0;
+
+
+
+	// Initialisation:
+	/**
+	 * Creates an index for the given storage offsets.
+	 *
+	 * @param anchor anchor location
+	 * @param offsets x, y and z offset triples, in storage order
+	 */
+	public StorageIndex(Location anchor, int[] offsets) {
+
+
+		int size = offsets.length / 3;
+
+		worldName = anchor.getWorld().getName();
+		xs = new int[size];
+		ys = new int[size];
+		zs = new int[size];
+		positions = new HashMap<Long, Integer>(size * 2);
+
+		int x = anchor.getBlockX();
+		int y = anchor.getBlockY();
+		int z = anchor.getBlockZ();
+
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i < size; i++) {
+
+			xs[i] = x + offsets[3*i];
+			ys[i] = y + offsets[3*i + 1];
+			zs[i] = z + offsets[3*i + 2];
+			positions.put(pack(xs[i], ys[i], zs[i]), i);
+			if(ys[i] < min) min = ys[i];
+
+		}
+		minY = (size > 0) ? min : 0;
+
+		typeIds = new int[size];
+		datas = new byte[size];
+		contents = new ItemStack[size][];
+		stale = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			typeIds[i] = -1;
+			stale[i] = true;
+		}
+
+
+	}
+
+	/**
+	 * Packs block coordinates.
+	 *
+	 * @param x x
+	 * @param y y
+	 * @param z z
+	 * @return packed coordinates
+	 */
+	private static long pack(int x, int y, int z) {
+		return ((long)(x & 0x3FFFFFF) << 38) | ((long)(z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+	}
+
+	/**
+	 * Packs a type ID and data.
+	 *
+	 * @param typeId type ID
+	 * @param data data
+	 * @return packed type ID and data
+	 */
+	private static int pack(int typeId, byte data) {
+		return (typeId << 8) | (data & 0xFF);
+	}
+
+
+
+	// Positions:
+	/**
+	 * Gets the storage order index of a block.
+	 *
+	 * @param block block
+	 * @return index, -1 if not in storage
+	 */
+	public int indexOf(Block block) {
+
+
+		if(!block.getWorld().getName().equals(worldName)) return -1;
+
+		Integer index = positions.get(pack(block.getX(), block.getY(), block.getZ()));
+		if(index == null) return -1;
+
+		return index;
+
+
+	}
+
+	/**
+	 * Checks if the block is a storage block.
+	 *
+	 * @param block block
+	 * @return true if a storage block
+	 */
+	public boolean contains(Block block) {
+		return indexOf(block) != -1;
+	}
+
+	/**
+	 * Gets the number of storage blocks.
+	 *
+	 * @return number of storage blocks
+	 */
+	public int size() {
+		return xs.length;
+	}
+
+	/**
+	 * Gets a storage block.
+	 *
+	 * @param index storage order index
+	 * @return block, null if the world isn't loaded
+	 */
+	public Block getBlock(int index) {
+
+		World world = Bukkit.getWorld(worldName);
+		if(world == null) return null;
+
+		return world.getBlockAt(xs[index], ys[index], zs[index]);
+
+	}
+
+	/**
+	 * Gets all storage blocks.
+	 *
+	 * @return storage blocks, in storage order
+	 */
+	public ArrayList<Block> getBlocks() {
+
+
+		ArrayList<Block> blocks = new ArrayList<Block>(xs.length);
+
+		World world = Bukkit.getWorld(worldName);
+		if(world == null) return blocks;
+
+		for (int i = 0; i < xs.length; i++) {
+			blocks.add(world.getBlockAt(xs[i], ys[i], zs[i]));
+		}
+
+		return blocks;
+
+
+	}
+
+
+
+	// Changes:
+	/**
+	 * Marks a block to be read again.
+	 *
+	 * @param block block
+	 */
+	public void invalidate(Block block) {
+
+
+		int index = indexOf(block);
+		if(index == -1) return;
+
+		stale[index] = true;
+		anyStale = true;
+
+
+	}
+
+	/**
+	 * Marks all blocks to be read again.
+	 *
+	 */
+	public void invalidate() {
+
+
+		for (int i = 0; i < stale.length; i++) {
+			stale[i] = true;
+		}
+		anyStale = true;
+
+
+	}
+
+	/**
+	 * Reads changed blocks. All blocks are read if the index wasn't verified recently.
+	 *
+	 */
+	private void validate() {
+
+
+		// Verify:
+		long now = System.currentTimeMillis();
+		if(now - verified > VERIFY_INTERVAL){
+			invalidate();
+			verified = now;
+		}
+
+		if(!anyStale) return;
+
+		World world = Bukkit.getWorld(worldName);
+		if(world == null) return;
+
+		for (int i = 0; i < stale.length; i++) {
+
+			if(!stale[i]) continue;
+
+			read(i, world.getBlockAt(xs[i], ys[i], zs[i]));
+			stale[i] = false;
+
+		}
+
+		anyStale = false;
+
+
+	}
+
+	/**
+	 * Reads a block.
+	 *
+	 * @param index storage order index
+	 * @param block block
+	 */
+	private void read(int index, Block block) {
+
+
+		// Remove previous:
+		if(typeIds[index] != -1) modCount(pack(typeIds[index], datas[index]), -1);
+
+		typeIds[index] = block.getTypeId();
+		datas[index] = block.getData();
+		modCount(pack(typeIds[index], datas[index]), 1);
+
+		// Chest contents:
+		contents[index] = null;
+		if(typeIds[index] == Material.CHEST.getId()){
+
+			BlockState state = block.getState();
+			if(state instanceof Chest){
+
+				ItemStack[] items = ((Chest) state).getBlockInventory().getContents();
+				for (int i = 0; i < items.length; i++) {
+					if(items[i] != null) items[i] = items[i].clone();
+				}
+				contents[index] = items;
+
+			}
+
+		}
+
+
+	}
+
+	/**
+	 * Modifies a block count.
+	 *
+	 * @param key packed type ID and data
+	 * @param mod modification
+	 */
+	private void modCount(Integer key, int mod) {
+
+
+		Integer count = blockCounts.get(key);
+		if(count == null) count = 0;
+		count+= mod;
+
+		if(count > 0) blockCounts.put(key, count);
+		else blockCounts.remove(key);
+
+
+	}
+
+
+
+	// Contents:
+	/**
+	 * Counts blocks with the given type and data.
+	 *
+	 * @param typeId type ID
+	 * @param data data
+	 * @return block count
+	 */
+	public int countBlocks(int typeId, byte data) {
+
+
+		validate();
+
+		Integer count = blockCounts.get(pack(typeId, data));
+		if(count == null) return 0;
+		return count;
+
+
+	}
+
+	/**
+	 * Counts items in chests.
+	 * Items are compared the same way as inventories compare them.
+	 *
+	 * @param item item
+	 * @return item count
+	 */
+	public int countItems(ItemStack item) {
+
+
+		validate();
+
+		int amount = 0;
+
+		for (int i = 0; i < contents.length; i++) {
+
+			ItemStack[] inventory = contents[i];
+			if(inventory == null) continue;
+
+			for (int j = 0; j < inventory.length; j++) {
+
+				if(inventory[j] == null) continue;
+
+				// From https://github.com/Bukkit/CraftBukkit/blob/master/src/main/java/org/bukkit/craftbukkit/inventory/CraftInventory.java
+				boolean equals = item.getTypeId() == inventory[j].getTypeId() && item.getDurability() == inventory[j].getDurability() && item.getEnchantments().equals(inventory[j].getEnchantments());
+
+				if(equals) amount+= inventory[j].getAmount();
+
+			}
+
+		}
+
+		return amount;
+
+
+	}
+
+	/**
+	 * Gets the contents of all chests.
+	 * The contents shouldn't be modified.
+	 *
+	 * @return chest contents
+	 */
+	public ArrayList<ItemStack[]> getChestContents() {
+
+
+		validate();
+
+		ArrayList<ItemStack[]> chestContents = new ArrayList<ItemStack[]>();
+		for (int i = 0; i < contents.length; i++) {
+			if(contents[i] != null) chestContents.add(contents[i]);
+		}
+
+		return chestContents;
+
+
+	}
+
+	/**
+	 * Gets all chests.
+	 *
+	 * @return chests
+	 */
+	public ArrayList<Chest> getChests() {
+
+
+		validate();
+
+		ArrayList<Chest> chests = new ArrayList<Chest>();
+
+		for (int i = 0; i < contents.length; i++) {
+
+			if(contents[i] == null) continue;
+
+			Block block = getBlock(i);
+			if(block == null) continue;
+
+			BlockState state = block.getState();
+			if(state instanceof Chest) chests.add((Chest) state);
+
+		}
+
+		return chests;
+
+
+	}
+
+	/**
+	 * Gets storage blocks matching the filter, in storage order.
+	 *
+	 * @param empty true for empty blocks, false for full blocks
+	 * @return matching blocks
+	 */
+	public ArrayList<Block> getBlocks(boolean empty) {
+
+
+		validate();
+
+		ArrayList<Block> blocks = new ArrayList<Block>();
+
+		for (int i = 0; i < typeIds.length; i++) {
+
+			if((typeIds[i] == 0) != empty) continue;
+
+			Block block = getBlock(i);
+			if(block != null) blocks.add(block);
+
+		}
+
+		return blocks;
+
+
+	}
+
+	/**
+	 * Gets empty blocks on the lowest level that has them.
+	 *
+	 * @param height storage height
+	 * @return lowest empty blocks
+	 */
+	public ArrayList<Block> getLowestEmpty(int height) {
+
+
+		validate();
+
+		ArrayList<Block> blocks = new ArrayList<Block>();
+
+		for (int level = minY; level <= minY + height; level++) {
+
+			for (int i = 0; i < typeIds.length; i++) {
+
+				if(ys[i] != level || typeIds[i] != 0) continue;
+
+				Block block = getBlock(i);
+				if(block != null) blocks.add(block);
+
+			}
+
+			if(blocks.size() > 0) break;
+
+		}
+
+		return blocks;
+
+
+	}
+
+	/**
+	 * Gets full blocks on the highest level that has them.
+	 *
+	 * @param height storage height
+	 * @return highest full blocks
+	 */
+	public ArrayList<Block> getHighestFull(int height) {
+
+
+		validate();
+
+		ArrayList<Block> blocks = new ArrayList<Block>();
+
+		for (int level = minY + height; level >= minY; level--) {
+
+			for (int i = 0; i < typeIds.length; i++) {
+
+				if(ys[i] != level || typeIds[i] == 0) continue;
+
+				Block block = getBlock(i);
+				if(block != null) blocks.add(block);
+
+			}
+
+			if(blocks.size() > 0) break;
+
+		}
+
+		return blocks;
+
+
+	}
+
+
+}
@@ -17,6 +17,8 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.saga.Clock;
 import org.saga.Clock.DaytimeTicker.Daytime;
+import org.saga.JobRunner;
+import org.saga.JobRunner.Job;
 import org.saga.Saga;
 import org.saga.SagaLogger;
 import org.saga.buildings.Building;
@@ -814,6 +816,7 @@ public class AdminCommands {
 		
 		// Recharge:
 		rune.recharge();
+		selPlayer.markDirty();
 		
 		// Inform:
 		if(selPlayer != sagaPlayer){
@@ -1181,7 +1184,7 @@ public class AdminCommands {
 			sagaPlayer.message(AdminMessages.saving());
 			
 			// Save:
-			Saga.plugin().save();
+			Saga.plugin().saveAll();
 			
 			// Inform:
 			sagaPlayer.message(AdminMessages.saved());
@@ -1216,20 +1219,8 @@ public class AdminCommands {
 			wikiText = AdminMessages.wikiCommands(commandMethods);
 		}
 		
-		Directory dir = Directory.WIKI;
-		String name = "commands";
-		
-		try {
-			WriterReader.writeString(dir, name, wikiText);
-		}
-		catch (IOException e) {
-			sagaPlayer.error("Failed to write wiki " + name);
-			SagaLogger.severe(AdminCommands.class, "failed to write wiki " + name + ": " + e.getClass().getSimpleName() + ":" + e.getMessage());
-			return;
-		}
-		
-		// Inform:
-		sagaPlayer.message(AdminMessages.writeDone(dir, name));
+		// Write:
+		writeWiki(sagaPlayer, "commands", wikiText);
 		
 		
 	}
@@ -1259,20 +1250,8 @@ public class AdminCommands {
 			wikiText = AdminMessages.wikiPermissions(commandMethods);
 		}
 			
-		Directory dir = Directory.WIKI;
-		String name = "permissions";
-		
-		try {
-			WriterReader.writeString(dir, name, wikiText);
-		}
-		catch (IOException e) {
-			sagaPlayer.error("Failed to write wiki " + name);
-			SagaLogger.severe(AdminCommands.class, "failed to write wiki " + name + ": " + e.getClass().getSimpleName() + ":" + e.getMessage());
-			return;
-		}
-		
-		// Inform:
-		sagaPlayer.message(AdminMessages.writeDone(dir, name));
+		// Write:
+		writeWiki(sagaPlayer, "permissions", wikiText);
 		
 		
 	}
@@ -1300,20 +1279,8 @@ public class AdminCommands {
 			wikiText = AdminMessages.wikiAttributes();
 		}
 			
-		Directory dir = Directory.WIKI;
-		String name = "attributes";
-		
-		try {
-			WriterReader.writeString(dir, name, wikiText);
-		}
-		catch (IOException e) {
-			sagaPlayer.error("Failed to write wiki " + name);
-			SagaLogger.severe(AdminCommands.class, "failed to write wiki " + name + ": " + e.getClass().getSimpleName() + ":" + e.getMessage());
-			return;
-		}
-		
-		// Inform:
-		sagaPlayer.message(AdminMessages.writeDone(dir, name));
+		// Write:
+		writeWiki(sagaPlayer, "attributes", wikiText);
 		
 		
 	}
@@ -1341,20 +1308,8 @@ public class AdminCommands {
 			wikiText = AdminMessages.wikiAbilities();
 		}
 			
-		Directory dir = Directory.WIKI;
-		String name = "abilities";
-		
-		try {
-			WriterReader.writeString(dir, name, wikiText);
-		}
-		catch (IOException e) {
-			sagaPlayer.error("Failed to write wiki " + name);
-			SagaLogger.severe(AdminCommands.class, "failed to write wiki " + name + ": " + e.getClass().getSimpleName() + ":" + e.getMessage());
-			return;
-		}
-		
-		// Inform:
-		sagaPlayer.message(AdminMessages.writeDone(dir, name));
+		// Write:
+		writeWiki(sagaPlayer, "abilities", wikiText);
 		
 		
 	}
@@ -1382,20 +1337,54 @@ public class AdminCommands {
 			wikiText = AdminMessages.wikiHelpMessages();
 		}
 			
-		Directory dir = Directory.WIKI;
-		String name = "help messages";
+		// Write:
+		writeWiki(sagaPlayer, "help messages", wikiText);
 		
-		try {
-			WriterReader.writeString(dir, name, wikiText);
-		}
-		catch (IOException e) {
-			sagaPlayer.error("Failed to write wiki " + name);
-			SagaLogger.severe(AdminCommands.class, "failed to write wiki " + name + ": " + e.getClass().getSimpleName() + ":" + e.getMessage());
-			return;
-		}
 		
-		// Inform:
-		sagaPlayer.message(AdminMessages.writeDone(dir, name));
+	}
+	
+	
+	/**
+	 * Writes a wiki file on a worker thread and informs the player when done.
+	 * 
+	 * @param sagaPlayer saga player
+	 * @param name wiki name
+	 * @param wikiText wiki text
+	 */
+	private static void writeWiki(SagaPlayer sagaPlayer, final String name, final String wikiText) {
+
+		
+		JobRunner.runner().submit(new Job(sagaPlayer, "write " + name) {
+			
+			private IOException failure = null;
+			
+			@Override
+			protected void work() {
+				
+				try {
+					WriterReader.writeString(Directory.WIKI, name, wikiText);
+				}
+				catch (IOException e) {
+					failure = e;
+				}
+				
+			}
+			
+			@Override
+			protected void finish() {
+				
+				if(failure != null){
+					getSender().error("Failed to write wiki " + name);
+					SagaLogger.severe(AdminCommands.class, "failed to write wiki " + name + ": " + failure.getClass().getSimpleName() + ":" + failure.getMessage());
+					return;
+				}
+				
+				// Inform:
+				getSender().message(AdminMessages.writeDone(Directory.WIKI, name));
+				
+			}
+			
+		});
 		
 		
 	}
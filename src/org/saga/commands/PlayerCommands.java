@@ -83,6 +83,7 @@ public class PlayerCommands {
 		
 		// Disable:
 		rune.setEnabled(false);
+		sagaPlayer.markDirty();
 		
 		// Inform:
 		sagaPlayer.message(PlayerMessages.disabled(rune));
@@ -111,6 +112,7 @@ public class PlayerCommands {
 		
 		// Disable:
 		rune.setEnabled(true);
+		sagaPlayer.markDirty();
 		
 		// Inform:
 		sagaPlayer.message(PlayerMessages.enabled(rune));
@@ -8,15 +8,16 @@ package org.saga.commands;
 import java.util.ArrayList;
 
 import org.bukkit.Material;
+import org.saga.JobRunner;
+import org.saga.JobRunner.Job;
 import org.saga.Saga;
 import org.saga.config.GeneralConfiguration;
-import org.saga.exceptions.NonExistantSagaPlayerException;
 import org.saga.messages.EconomyMessages;
 import org.saga.messages.GeneralMessages;
 import org.saga.messages.StatisticsMessages;
+import org.saga.player.PlayerIndex;
+import org.saga.player.PlayerIndex.PlayerSummary;
 import org.saga.player.SagaPlayer;
-import org.saga.saveload.Directory;
-import org.saga.saveload.WriterReader;
 import org.saga.statistics.StatisticsManager;
 import org.saga.utility.MetricPrefix;
 import org.sk89q.Command;
@@ -560,22 +561,49 @@ public class StatisticsCommands {
 	    // Inform:
     	sagaPlayer.message(StatisticsMessages.updating());
 	    
-    	// Force and release:
-		String[] players = WriterReader.getFileNames(Directory.PLAYER_DATA);
-		
-		for (int i = 0; i < players.length; i++) {
+    	// Update in batches:
+    	JobRunner.runner().submit(new Job(sagaPlayer, "update players") {
+    		
+    		private ArrayList<PlayerSummary> summaries;
+    		
+    		private int next = 0;
+    		
+			@Override
+			protected void work() {
+				summaries = PlayerIndex.index().getSummaries();
+			}
+			
+			@Override
+			protected boolean step() {
+				
+				if(next >= summaries.size()) return false;
+				PlayerSummary summary = summaries.get(next++);
+				
+				// Loaded players and summaries for the rest:
+				SagaPlayer selPlayer = Saga.plugin().getLoadedPlayer(summary.getName());
+				
+				if(selPlayer != null){
+					selPlayer.updateStatistics();
+				}else{
+					StatisticsManager.manager().setWallet(summary);
+					StatisticsManager.manager().setPlayer(summary);
+				}
+				
+				return true;
+				
+			}
 			
-			try {
-				SagaPlayer selPlayer = Saga.plugin().forceSagaPlayer(players[i].replace(Directory.FILE_EXTENTENSION, ""));
-				selPlayer.updateStatistics();
-				selPlayer.indicateRelease();
+			@Override
+			protected int getTotal() {
+				return summaries.size();
 			}
-			catch (NonExistantSagaPlayerException e) { }
 			
-		}
-		
-	    // Inform:
-    	sagaPlayer.message(StatisticsMessages.updated());
+			@Override
+			protected void finish() {
+				getSender().message(StatisticsMessages.updated());
+			}
+			
+		});
 	    
 	    
 	}
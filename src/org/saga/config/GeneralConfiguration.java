@@ -45,6 +45,21 @@ public class GeneralConfiguration {
 	 */
 	public Integer saveInterval;
 	
+	/**
+	 * True if files are written by a background writer.
+	 */
+	public Boolean asyncSaving;
+	
+	/**
+	 * Maximum number of files waiting for the background writer.
+	 */
+	public Integer saveQueueCapacity;
+	
+	/**
+	 * Number of saves after which everything is saved, changed or not.
+	 */
+	public Integer fullSaveInterval;
+	
 	
 	// Chat:
 	/**
@@ -187,6 +202,21 @@ public class GeneralConfiguration {
 			SagaLogger.nullField(getClass(), "saveInterval");
 			saveInterval= 60;
 		}
+		
+		if(asyncSaving == null){
+			SagaLogger.nullField(getClass(), "asyncSaving");
+			asyncSaving = false;
+		}
+		
+		if(saveQueueCapacity == null){
+			SagaLogger.nullField(getClass(), "saveQueueCapacity");
+			saveQueueCapacity = 1024;
+		}
+		
+		if(fullSaveInterval == null){
+			SagaLogger.nullField(getClass(), "fullSaveInterval");
+			fullSaveInterval = 10;
+		}
 
 		if(adminChatNameColor == null){
 			SagaLogger.nullField(getClass(), "adminChatNameColor");
@@ -19,6 +19,7 @@ import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.saga.SagaLogger;
+import org.saga.player.EquipmentProfile;
 import org.saga.settlements.SagaMap;
 import org.saga.utility.chat.ChatFramer;
 
@@ -89,21 +90,45 @@ public class VanillaConfiguration {
 		if(player == null) return 1.0;
 		
 		// Armour not effective:
-		if(
-			event.getCause() != DamageCause.ENTITY_ATTACK &&
-			event.getCause() != DamageCause.PROJECTILE &&
-			event.getCause() != DamageCause.FIRE &&
-			event.getCause() != DamageCause.LAVA &&
-			event.getCause() != DamageCause.CONTACT &&
-			event.getCause() != DamageCause.BLOCK_EXPLOSION
-		) return 1.0;
+		if(!checkArmourEffective(event.getCause())) return 1.0;
 
 		PlayerInventory inventory = player.getInventory();
 
-		ItemStack boots = inventory.getBoots();
-		ItemStack helmet = inventory.getHelmet();
-		ItemStack chestplate = inventory.getChestplate();
-		ItemStack leggings = inventory.getLeggings();
+		return 1 - getArmourReduction(inventory.getHelmet(), inventory.getChestplate(), inventory.getLeggings(), inventory.getBoots());
+		
+		
+	}
+	
+	/**
+	 * Checks if armour is effective against the damage cause.
+	 * 
+	 * @param cause damage cause
+	 * @return true if effective
+	 */
+	public static boolean checkArmourEffective(DamageCause cause) {
+
+		return
+			cause == DamageCause.ENTITY_ATTACK ||
+			cause == DamageCause.PROJECTILE ||
+			cause == DamageCause.FIRE ||
+			cause == DamageCause.LAVA ||
+			cause == DamageCause.CONTACT ||
+			cause == DamageCause.BLOCK_EXPLOSION;
+		
+	}
+	
+	/**
+	 * Gets the damage reduction from armour.
+	 * 
+	 * @param helmet helmet, null if none
+	 * @param chestplate chestplate, null if none
+	 * @param leggings leggings, null if none
+	 * @param boots boots, null if none
+	 * @return armour reduction
+	 */
+	public static double getArmourReduction(ItemStack helmet, ItemStack chestplate, ItemStack leggings, ItemStack boots) {
+		
+		
 		double reduction = 0.0;
 		
 		// Helmet:
@@ -138,7 +163,7 @@ public class VanillaConfiguration {
 			else if (chestplate.getType() == Material.IRON_CHESTPLATE) reduction = reduction + 0.24;
 			else if (chestplate.getType() == Material.DIAMOND_CHESTPLATE) reduction = reduction + 0.32;
 			
-		return 1-reduction;
+		return reduction;
 		
 		
 	}
@@ -186,108 +211,38 @@ public class VanillaConfiguration {
 		if(living instanceof Player) player = (Player) living;
 		if(player == null) return 1.0;
 		
-		PlayerInventory inventory = player.getInventory();
+		EquipmentProfile profile = new EquipmentProfile();
+		profile.calculate(player.getInventory());
+		
+		return getEPFMultiplier(profile.getEPF(getEPFCause(event)));
 
-		ItemStack boots = inventory.getBoots();
-		ItemStack helmet = inventory.getHelmet();
-		ItemStack chestplate = inventory.getChestplate();
-		ItemStack leggings = inventory.getLeggings();
 		
-		int epf = 0;
+	}
+	
+	/**
+	 * Gets the damage cause enchantment protection is checked against.
+	 * 
+	 * @param event event
+	 * @return damage cause
+	 */
+	public static DamageCause getEPFCause(EntityDamageEvent event) {
 		
-		DamageCause cause = event.getCause();
 		if((event instanceof EntityDamageByEntityEvent && ((EntityDamageByEntityEvent) event).getDamager() instanceof Fireball)){
-			cause = DamageCause.FIRE;
+			return DamageCause.FIRE;
 		}
 		
-		boolean protection = false;
-		switch (cause) {
-			case ENTITY_ATTACK:
-				
-				protection = true;
-				break;
-				
-			case FIRE:
-				
-				// Fire protection:
-				if(helmet != null) epf+= getEPF(helmet.getEnchantmentLevel(Enchantment.PROTECTION_FIRE));
-				if(chestplate != null) epf+= getEPF(chestplate.getEnchantmentLevel(Enchantment.PROTECTION_FIRE));
-				if(leggings != null) epf+= getEPF(leggings.getEnchantmentLevel(Enchantment.PROTECTION_FIRE));
-				if(boots != null) epf+= getEPF(boots.getEnchantmentLevel(Enchantment.PROTECTION_FIRE));
-				
-				protection = true;
-				break;
-
-			case LAVA:
-
-				// Fire protection:
-				if(helmet != null) epf+= getEPF(helmet.getEnchantmentLevel(Enchantment.PROTECTION_FIRE));
-				if(chestplate != null) epf+= getEPF(chestplate.getEnchantmentLevel(Enchantment.PROTECTION_FIRE));
-				if(leggings != null) epf+= getEPF(leggings.getEnchantmentLevel(Enchantment.PROTECTION_FIRE));
-				if(boots != null) epf+= getEPF(boots.getEnchantmentLevel(Enchantment.PROTECTION_FIRE));
-				
-				protection = true;
-				break;
-
-			case BLOCK_EXPLOSION:
-
-				// Explosion protection:
-				if(helmet != null) epf+= getEPF(helmet.getEnchantmentLevel(Enchantment.PROTECTION_EXPLOSIONS));
-				if(chestplate != null) epf+= getEPF(chestplate.getEnchantmentLevel(Enchantment.PROTECTION_EXPLOSIONS));
-				if(leggings != null) epf+= getEPF(leggings.getEnchantmentLevel(Enchantment.PROTECTION_EXPLOSIONS));
-				if(boots != null) epf+= getEPF(boots.getEnchantmentLevel(Enchantment.PROTECTION_EXPLOSIONS));
-				
-				protection = true;
-				break;
-				
-			case ENTITY_EXPLOSION:
-
-				// Explosion protection:
-				if(helmet != null) epf+= getEPF(helmet.getEnchantmentLevel(Enchantment.PROTECTION_EXPLOSIONS));
-				if(chestplate != null) epf+= getEPF(chestplate.getEnchantmentLevel(Enchantment.PROTECTION_EXPLOSIONS));
-				if(leggings != null) epf+= getEPF(leggings.getEnchantmentLevel(Enchantment.PROTECTION_EXPLOSIONS));
-				if(boots != null) epf+= getEPF(boots.getEnchantmentLevel(Enchantment.PROTECTION_EXPLOSIONS));
-				
-				protection = true;
-				break;
-				
-			case PROJECTILE:
-
-				// Explosion protection:
-				if(helmet != null) epf+= getEPF(helmet.getEnchantmentLevel(Enchantment.PROTECTION_PROJECTILE));
-				if(chestplate != null) epf+= getEPF(chestplate.getEnchantmentLevel(Enchantment.PROTECTION_PROJECTILE));
-				if(leggings != null) epf+= getEPF(leggings.getEnchantmentLevel(Enchantment.PROTECTION_PROJECTILE));
-				if(boots != null) epf+= getEPF(boots.getEnchantmentLevel(Enchantment.PROTECTION_PROJECTILE));
-				
-				protection = true;
-				break;
-				
-			case FALL:
-
-				// Fall protection:
-				if(helmet != null) epf+= 2*getEPF(helmet.getEnchantmentLevel(Enchantment.PROTECTION_FALL));
-				if(chestplate != null) epf+= 2*getEPF(chestplate.getEnchantmentLevel(Enchantment.PROTECTION_FALL));
-				if(leggings != null) epf+= 2*getEPF(leggings.getEnchantmentLevel(Enchantment.PROTECTION_FALL));
-				if(boots != null) epf+= 2*getEPF(boots.getEnchantmentLevel(Enchantment.PROTECTION_FALL));
-				
-				protection = true;
-				break;
-				
-			default:
-				
-				break;
-				
-		}
+		return event.getCause();
+		
+	}
+	
+	/**
+	 * Gets the damage amount EPF multiplier for total EPF.
+	 * 
+	 * @param epf total EPF
+	 * @return EPF multiplier
+	 */
+	public static double getEPFMultiplier(int epf) {
 		
-		if(protection){
-
-			// Protection:
-			if(helmet != null) epf+= getEPF(helmet.getEnchantmentLevel(Enchantment.PROTECTION_ENVIRONMENTAL));
-			if(chestplate != null) epf+= getEPF(chestplate.getEnchantmentLevel(Enchantment.PROTECTION_ENVIRONMENTAL));
-			if(leggings != null) epf+= getEPF(leggings.getEnchantmentLevel(Enchantment.PROTECTION_ENVIRONMENTAL));
-			if(boots != null) epf+= getEPF(boots.getEnchantmentLevel(Enchantment.PROTECTION_ENVIRONMENTAL));
-			
-		}
 		
 		// Cap I:
 		if(epf > 25) epf = 25;
@@ -303,6 +258,25 @@ public class VanillaConfiguration {
 		
 	}
 	
+	/**
+	 * Sums the EPF values for an enchantment on all armour pieces.
+	 * 
+	 * @param armour armour pieces, null elements if none
+	 * @param enchantment enchantment
+	 * @return EPF sum
+	 */
+	public static int getEPF(ItemStack[] armour, Enchantment enchantment) {
+
+		int epf = 0;
+		
+		for (int i = 0; i < armour.length; i++) {
+			if(armour[i] != null) epf+= getEPF(armour[i].getEnchantmentLevel(enchantment));
+		}
+		
+		return epf;
+		
+	}
+	
 	/**
 	 * Gets the EPF value for given enchantment level
 	 * 
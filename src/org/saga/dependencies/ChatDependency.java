@@ -1,5 +1,9 @@
 package org.saga.dependencies;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
 import net.milkbowl.vault.chat.Chat;
 
 import org.anjocaido.groupmanager.GroupManager;
@@ -73,6 +77,17 @@ public class ChatDependency {
 	 * Vault chat.
 	 */
 	private Chat vaultChat = null;
+	
+	
+	/**
+	 * Published chat prefixes, by player name.
+	 */
+	private ConcurrentHashMap<String, ChatPrefix> prefixes = new ConcurrentHashMap<String, ChatPrefix>();
+	
+	/**
+	 * Compiled chat formats, by format.
+	 */
+	private ConcurrentHashMap<String, ChatTemplate> templates = new ConcurrentHashMap<String, ChatTemplate>();
 
 	
 
@@ -141,6 +156,8 @@ public class ChatDependency {
 		manager.groupManager = null;
 		manager.essentialsChat = null;
 		manager.vaultChat = null;
+		manager.prefixes.clear();
+		manager.templates.clear();
 		
 		manager = null;
 
@@ -151,6 +168,7 @@ public class ChatDependency {
 	// Operation:
 	/**
 	 * Modifies chat format.
+	 * Safe to call from the asynchronous chat thread, only reads published prefixes.
 	 * 
 	 * @param format old format
 	 * @param sagaPlayer saga player
@@ -159,61 +177,71 @@ public class ChatDependency {
 	public static String format(String format, SagaPlayer sagaPlayer) {
 
 		
+		ChatDependency manager = ChatDependency.manager;
+		if(manager == null) return format;
+		
+		ChatPrefix prefix = manager.prefixes.get(sagaPlayer.getName());
+		if(prefix == null) prefix = ChatPrefix.EMPTY;
+		
 		// Faction prefix if no chat managers present:
 		if(manager.essentialsChat == null && manager.vaultChat == null && manager.groupManager == null){
-
-			Faction faction = sagaPlayer.getFaction();
-	    	if(faction == null || !faction.isFormed()) return format;
-	    	
-	    	ChatColor color1 = faction.getColour1();
-	    	ChatColor color2 = faction.getColour2();
-	    	ChatColor reset = ChatColor.RESET;
 			
-			return "<" +color1 + faction.getName() + "-" + color2 + "%1$s" + reset + "> %2$s";
+			if(prefix.defaultFormat == null) return format;
+			return prefix.defaultFormat;
 			
 		}
 		
-    	// Settlement:
-		Bundle bundle = sagaPlayer.getBundle();
-		if(bundle != null){
-			format = format.replace(SETTLEMENT_INSERT, GeneralConfiguration.config().settlementFormat.replace(GeneralConfiguration.INSERT_STRING, bundle.getName()));
-		}else{
-			format = format.replace(SETTLEMENT_INSERT, "");
-		}
-
-    	// Faction:
-		Faction faction = sagaPlayer.getFaction();
-		if(faction != null && faction.isFormed()){
-			format = format.replace(FACTION_INSERT, GeneralConfiguration.config().factionFormat.replace(GeneralConfiguration.INSERT_STRING, faction.getName()));
-			format = format.replace(FACTION_COLOUR1_INSERT, faction.getColour1().toString());
-			format = format.replace(FACTION_COLOUR2_INSERT, faction.getColour2().toString());
-		}else{
-			format = format.replace(FACTION_INSERT, "");
-			format = format.replace(FACTION_COLOUR1_INSERT, "");
-			format = format.replace(FACTION_COLOUR2_INSERT, "");
-		}
-
-		// Role:
-		Proficiency role = sagaPlayer.getRole();
-		if(role != null){
-			format = format.replace(ROLE_INSERT, GeneralConfiguration.config().roleFormat.replace(GeneralConfiguration.INSERT_STRING, role.getName()));
-		}else{
-			format = format.replace(ROLE_INSERT, "");
-		}
+		// Same format as last time:
+		String[] rendered = prefix.rendered;
+		if(rendered != null && rendered[0].equals(format)) return rendered[1];
 		
-		// Rank:
-		Proficiency rank = sagaPlayer.getRank();
-		if(rank != null){
-			format = format.replace(RANK_INSERT, GeneralConfiguration.config().rankFormat.replace(GeneralConfiguration.INSERT_STRING, rank.getName()));
-		}else{
-			format = format.replace(RANK_INSERT, "");
+		// Template:
+		ChatTemplate template = manager.templates.get(format);
+		if(template == null){
+			template = new ChatTemplate(format);
+			manager.templates.putIfAbsent(format, template);
 		}
 		
-    	return format;
+		String result = template.render(prefix);
+		prefix.rendered = new String[]{format, result};
+		
+    	return result;
     	
 		
 	}
+	
+	/**
+	 * Publishes the chat prefix for a player. Must be called from the main thread.
+	 * 
+	 * @param sagaPlayer saga player
+	 */
+	public static void updateChat(SagaPlayer sagaPlayer) {
 
+		
+		if(manager == null) return;
+		
+		ChatPrefix prefix = new ChatPrefix(sagaPlayer);
+		
+		ChatPrefix previous = manager.prefixes.get(sagaPlayer.getName());
+		if(prefix.equals(previous)) return;
+		
+		manager.prefixes.put(sagaPlayer.getName(), prefix);
+		
+		
+	}
+	
+	/**
+	 * Removes the chat prefix for a player.
+	 * 
+	 * @param sagaPlayer saga player
+	 */
+	public static void removeChat(SagaPlayer sagaPlayer) {
+
+		if(manager == null) return;
+		manager.prefixes.remove(sagaPlayer.getName());
+		
+	}
+	
 	
 
 	// Temporary:
@@ -279,6 +307,252 @@ public class ChatDependency {
 		
 	
 	}
+
+	
+	
+	// Types:
+	/**
+	 * Chat inserts for a player. Immutable once published.
+	 * 
+	 */
+	private static class ChatPrefix {
+		
+		
+		/**
+		 * No inserts.
+		 */
+		private final static ChatPrefix EMPTY = new ChatPrefix();
+		
+		
+		/**
+		 * Insert values, in token order.
+		 */
+		private final String[] inserts;
+		
+		/**
+		 * Format used when no chat managers are present, null if unchanged.
+		 */
+		private final String defaultFormat;
+		
+		/**
+		 * Last format and the result rendered for it, null if none.
+		 */
+		private volatile String[] rendered = null;
+		
+		
+		/**
+		 * Creates empty inserts.
+		 * 
+		 */
+		private ChatPrefix() {
+			
+			inserts = new String[]{"", "", "", "", "", ""};
+			defaultFormat = null;
+			
+		}
+		
+		/**
+		 * Creates inserts for a player.
+		 * 
+		 * @param sagaPlayer saga player
+		 */
+		private ChatPrefix(SagaPlayer sagaPlayer) {
+			
+			
+			inserts = new String[]{"", "", "", "", "", ""};
+			
+			// Settlement:
+			Bundle bundle = sagaPlayer.getBundle();
+			if(bundle != null){
+				inserts[ChatTemplate.SETTLEMENT] = GeneralConfiguration.config().settlementFormat.replace(GeneralConfiguration.INSERT_STRING, bundle.getName());
+			}
+			
+			// Faction:
+			Faction faction = sagaPlayer.getFaction();
+			if(faction != null && faction.isFormed()){
+				
+				inserts[ChatTemplate.FACTION] = GeneralConfiguration.config().factionFormat.replace(GeneralConfiguration.INSERT_STRING, faction.getName());
+				inserts[ChatTemplate.FACTION_COLOUR1] = faction.getColour1().toString();
+				inserts[ChatTemplate.FACTION_COLOUR2] = faction.getColour2().toString();
+				
+				defaultFormat = "<" + faction.getColour1() + faction.getName() + "-" + faction.getColour2() + "%1$s" + ChatColor.RESET + "> %2$s";
+				
+			}else{
+				
+				defaultFormat = null;
+				
+			}
+			
+			// Role:
+			Proficiency role = sagaPlayer.getRole();
+			if(role != null){
+				inserts[ChatTemplate.ROLE] = GeneralConfiguration.config().roleFormat.replace(GeneralConfiguration.INSERT_STRING, role.getName());
+			}
+			
+			// Rank:
+			Proficiency rank = sagaPlayer.getRank();
+			if(rank != null){
+				inserts[ChatTemplate.RANK] = GeneralConfiguration.config().rankFormat.replace(GeneralConfiguration.INSERT_STRING, rank.getName());
+			}
+			
+			
+		}
+		
+		
+		/* 
+		 * Compares inserts.
+		 * 
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			
+			if(!(obj instanceof ChatPrefix)) return false;
+			ChatPrefix other = (ChatPrefix) obj;
+			
+			if(defaultFormat == null ? other.defaultFormat != null : !defaultFormat.equals(other.defaultFormat)) return false;
+			return Arrays.equals(inserts, other.inserts);
+			
+		}
+		
+		/* 
+		 * Hash of inserts.
+		 * 
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(inserts);
+		}
+		
+		
+	}
+	
+	/**
+	 * Chat format split into text and insert tokens.
+	 * 
+	 */
+	private static class ChatTemplate {
+		
+		
+		/**
+		 * Settlement token.
+		 */
+		private final static int SETTLEMENT = 0;
+		
+		/**
+		 * Faction token.
+		 */
+		private final static int FACTION = 1;
+		
+		/**
+		 * Faction colour 1 token.
+		 */
+		private final static int FACTION_COLOUR1 = 2;
+		
+		/**
+		 * Faction colour 2 token.
+		 */
+		private final static int FACTION_COLOUR2 = 3;
+		
+		/**
+		 * Role token.
+		 */
+		private final static int ROLE = 4;
+		
+		/**
+		 * Rank token.
+		 */
+		private final static int RANK = 5;
+		
+		/**
+		 * Inserts, in token order.
+		 */
+		private final static String[] INSERTS = new String[]{SETTLEMENT_INSERT, FACTION_INSERT, FACTION_COLOUR1_INSERT, FACTION_COLOUR2_INSERT, ROLE_INSERT, RANK_INSERT};
+		
+		
+		/**
+		 * Text parts, one more than tokens.
+		 */
+		private final String[] texts;
+		
+		/**
+		 * Tokens between text parts.
+		 */
+		private final int[] tokens;
+		
+		
+		/**
+		 * Compiles a format.
+		 * 
+		 * @param format format
+		 */
+		private ChatTemplate(String format) {
+			
+			
+			ArrayList<String> texts = new ArrayList<String>();
+			ArrayList<Integer> tokens = new ArrayList<Integer>();
+			
+			int start = 0;
+			while(true){
+				
+				// Next insert:
+				int next = -1;
+				int token = -1;
+				for (int i = 0; i < INSERTS.length; i++) {
+					
+					int index = format.indexOf(INSERTS[i], start);
+					if(index != -1 && (next == -1 || index < next)){
+						next = index;
+						token = i;
+					}
+					
+				}
+				
+				if(next == -1) break;
+				
+				texts.add(format.substring(start, next));
+				tokens.add(token);
+				start = next + INSERTS[token].length();
+				
+			}
+			
+			texts.add(format.substring(start));
+			
+			this.texts = texts.toArray(new String[texts.size()]);
+			this.tokens = new int[tokens.size()];
+			for (int i = 0; i < this.tokens.length; i++) {
+				this.tokens[i] = tokens.get(i);
+			}
+			
+			
+		}
+		
+		/**
+		 * Renders the format.
+		 * 
+		 * @param prefix player inserts
+		 * @return rendered format
+		 */
+		private String render(ChatPrefix prefix) {
+			
+			
+			if(tokens.length == 0) return texts[0];
+			
+			StringBuilder result = new StringBuilder();
+			for (int i = 0; i < tokens.length; i++) {
+				result.append(texts[i]);
+				result.append(prefix.inserts[tokens[i]]);
+			}
+			result.append(texts[tokens.length]);
+			
+			return result.toString();
+			
+			
+		}
+		
+		
+	}
 	
 
 }
@@ -8,6 +8,7 @@ import org.bukkit.plugin.RegisteredServiceProvider;
 import org.saga.Saga;
 import org.saga.SagaLogger;
 import org.saga.config.EconomyConfiguration;
+import org.saga.player.PlayerIndex.PlayerSummary;
 import org.saga.player.SagaPlayer;
 
 public class EconomyDependency {
@@ -152,6 +153,27 @@ public class EconomyDependency {
 
 		
 	}
+	
+	/**
+	 * Gets players coins from a player summary.
+	 * 
+	 * @param summary player summary
+	 * @return currency amount of currency the player has
+	 */
+	public static Double getCoins(PlayerSummary summary){
+		
+		
+		// Vault:
+		if(manager.vaultEconomy != null){
+			
+			return manager.vaultEconomy.getBalance(summary.getName());
+			
+		}
+		
+		return summary.getCoins();
+
+		
+	}
 
 	
 	
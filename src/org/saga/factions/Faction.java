@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 
@@ -140,6 +141,18 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	transient private boolean enabled = false;
 	
+	/**
+	 * True if the faction has changed since the last save.
+	 */
+	transient private boolean dirty = true;
+	
+	
+	// Optimisation:
+	/**
+	 * Loaded players with the faction ID, by name.
+	 */
+	transient private HashMap<String, SagaPlayer> onlinePlayers = new HashMap<String, SagaPlayer>();
+	
 	
 	
 	// Initialisation:
@@ -436,6 +449,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		
 		// Add member:
 		members.add(sagaPlayer.getName());
+		markDirty();
 		
 		// Set Id:
 		sagaPlayer.setFactionId(getId());
@@ -447,6 +461,9 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		} catch (InvalidProficiencyException e) {
 			SagaLogger.severe(this, "failed to set " + FactionConfiguration.config().getDefaultRank() + " rank, because the rank name is invalid");
 		}
+		
+		// Formation:
+		updateChat();
 
     	
 	}
@@ -464,6 +481,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		
 		// Remove member:
 		members.remove(sagaPlayer.getName());
+		markDirty();
 
 		// Remove owner:
 		if(isOwner(sagaPlayer.getName())){
@@ -472,6 +490,9 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		
 		// Remove faction:
 		sagaPlayer.removeFactionId();
+		
+		// Formation:
+		updateChat();
 
 		
 	}
@@ -585,10 +606,9 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	public Collection<SagaPlayer> getRawOnlineMembers() {
 		
-		Collection<SagaPlayer> onlinePlayers = Saga.plugin().getLoadedPlayers();
 		Collection<SagaPlayer> onlineMembers = new HashSet<SagaPlayer>();
 		
-		for (SagaPlayer onlinePlayer : onlinePlayers) {
+		for (SagaPlayer onlinePlayer : onlinePlayers.values()) {
 			
 			if(isMember(onlinePlayer.getName())) onlineMembers.add(onlinePlayer);
 			
@@ -605,16 +625,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	public Collection<SagaPlayer> getOnlineMembers() {
 		
-		Collection<SagaPlayer> onlineMembers = new HashSet<SagaPlayer>(getRawOnlineMembers());
-		Collection<SagaPlayer> onlinePlayers = Saga.plugin().getLoadedPlayers();
-		
-		for (SagaPlayer sagaPlayer : onlinePlayers) {
-			
-			if(sagaPlayer.getFactionId().equals(getId())) onlineMembers.add(sagaPlayer);
-			
-		}
-		
-		return onlineMembers;
+		return new HashSet<SagaPlayer>(onlinePlayers.values());
 		
 	}
 
@@ -627,9 +638,8 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	public Collection<SagaPlayer> getLimitedOnlineMembers() {
 		
 		Collection<SagaPlayer> onlineLimited = new HashSet<SagaPlayer>();
-		Collection<SagaPlayer> onlinePlayers = Saga.plugin().getLoadedPlayers();
 		
-		for (SagaPlayer sagaPlayer : onlinePlayers) {
+		for (SagaPlayer sagaPlayer : onlinePlayers.values()) {
 			
 			if(isLimitedMember(sagaPlayer)) onlineLimited.add(sagaPlayer);
 			
@@ -660,10 +670,34 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	public boolean isMemberOnline(String playerName) {
 		
-		return isMember(playerName) && Saga.plugin().isSagaPlayerLoaded(playerName);
+		return isMember(playerName) && onlinePlayers.containsKey(playerName);
 
 	}
 	
+	/**
+	 * Adds a loaded player with the faction ID.
+	 * Called by the player when loaded or when joining.
+	 * 
+	 * @param sagaPlayer saga player
+	 */
+	public void addOnlinePlayer(SagaPlayer sagaPlayer) {
+		
+		onlinePlayers.put(sagaPlayer.getName(), sagaPlayer);
+		
+	}
+	
+	/**
+	 * Removes a loaded player with the faction ID.
+	 * Called by the player when unloaded or when leaving.
+	 * 
+	 * @param sagaPlayer saga player
+	 */
+	public void removeOnlinePlayer(SagaPlayer sagaPlayer) {
+		
+		if(onlinePlayers.get(sagaPlayer.getName()) == sagaPlayer) onlinePlayers.remove(sagaPlayer.getName());
+		
+	}
+	
 	
 	/**
 	 * Checks if the faction is formed.
@@ -680,6 +714,19 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		
 	}
 	
+	/**
+	 * Publishes chat prefixes for all online players.
+	 * Called when the name, colours or formation change.
+	 * 
+	 */
+	public void updateChat() {
+		
+		for (SagaPlayer sagaPlayer : onlinePlayers.values()) {
+			sagaPlayer.updateChat();
+		}
+		
+	}
+	
 	/**
 	 * Matches a name to a members name.
 	 * 
@@ -722,6 +769,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	public void setOwner(String playerName) {
 		owner = playerName;
+		markDirty();
 	}
 
 	/**
@@ -731,6 +779,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	public void removeOwner() {
 		owner = "";
+		markDirty();
 	}
 	
 	/**
@@ -778,6 +827,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		
 		// Faction:
 		coins+= factionShare;
+		if(factionShare != 0.0) markDirty();
 		
 	}
 	
@@ -791,6 +841,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		Double given = request;
 		if(given > coins) given = coins;
 		coins-= given;
+		if(given > 0) markDirty();
 		return given;
 		
 	}
@@ -802,6 +853,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	public void modCoins(Double amount) {
 		coins+= amount;
+		markDirty();
 	}
 	
 	
@@ -823,6 +875,8 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	public void setName(String factionName) {
 		this.name = factionName;
+		markDirty();
+		updateChat();
 	}
 
 	/**
@@ -841,6 +895,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	void setId(Integer factionId) {
 		this.id = factionId;
+		markDirty();
 	}
 
 	
@@ -871,6 +926,8 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	public void setColor1(ChatColor colour1) {
 		this.colour1 = colour1;
+		markDirty();
+		updateChat();
 	}
 
 	/**
@@ -880,6 +937,8 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	public void setColor2(ChatColor colour2) {
 		this.colour2 = colour2;
+		markDirty();
+		updateChat();
 	}
 
 	
@@ -899,6 +958,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 				WarManager.manager().setAlliance(getId(), allyID);
 			}
 			allies = null;
+			markDirty();
 		}
 		
 		return new HashSet<Integer>(allyRequests);
@@ -913,6 +973,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	public boolean addAllianceRequest(Integer id) {
 
+		markDirty();
 		return allyRequests.add(id);
 		
 	}
@@ -925,6 +986,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	public boolean removeAllianceRequest(Integer id) {
 
+		markDirty();
 		return allyRequests.remove(id);
 		
 	}
@@ -974,6 +1036,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		
 		// Add to settlement:
 		playerRanks.put(sagaPlayer.getName(), rank);
+		markDirty();
 		
 		// Update:
 		sagaPlayer.update();
@@ -997,6 +1060,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 
 		// Remove from faction:
 		playerRanks.remove(sagaPlayer.getName());
+		markDirty();
 
 		// Update:
 		sagaPlayer.update();
@@ -1129,6 +1193,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		// Increase claims:
 		if(claims < FactionConfiguration.config().getMaxClaims()){
 			claims+= FactionConfiguration.config().getClaimsPerMinute(online);
+			markDirty();
 
 			// Statistics:
 			StatisticsManager.manager().addFactionClaims(this, FactionConfiguration.config().getClaimsPerMinute(online));
@@ -1163,7 +1228,10 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		if(!isFormed()) return true;
 		
 		// Reset kills:
-		if(daytime == Daytime.SUNRISE) dailyKills = new HashSet<String>();
+		if(daytime == Daytime.SUNRISE){
+			dailyKills = new HashSet<String>();
+			markDirty();
+		}
 		
 		// Wages:
 		if(daytime == EconomyConfiguration.config().getFactionWagesTime()) handleWages();
@@ -1182,6 +1250,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 */
 	public void removeSpawnPoint() {
 		spawn = null;
+		markDirty();
 	}
 	
 	/**
@@ -1192,6 +1261,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	public void setSpawn(Location location) {
 		
 		spawn = new SagaLocation(location);
+		markDirty();
 		
 	}
 	
@@ -1239,6 +1309,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		
 		// Reset kills:
 		dailyKills = new HashSet<String>();
+		markDirty();
 		
 	}
 	
@@ -1280,6 +1351,8 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 				
 			}
 			
+			markDirty();
+			
 		}
 		
 		
@@ -1305,7 +1378,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 	 * @param memberName member name
 	 */
 	public void resetWage(String memberName) {
-		wages.remove(memberName);
+		if(wages.remove(memberName) != null) markDirty();
 	}
 	
 	
@@ -1406,6 +1479,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		
 		// Complete:
 		faction.complete();
+		faction.dirty = false;
 
 		// Enable:
 		faction.enable();
@@ -1429,6 +1503,7 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		
 		try {
 			WriterReader.write(Directory.FACTION_DATA, id.toString(), this);
+			dirty = false;
 		} catch (IOException e) {
 			SagaLogger.severe(this, "write failed: " + e.getClass().getSimpleName() + ":" + e.getMessage());
 		}
@@ -1450,6 +1525,23 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 		// TODO Add notify for faction saving disabled.
 	}
 	
+	/**
+	 * Marks the faction as changed since the last save.
+	 * 
+	 */
+	public void markDirty() {
+		dirty = true;
+	}
+	
+	/**
+	 * Checks if the faction has changed since the last save.
+	 * 
+	 * @return true if changed
+	 */
+	public boolean isDirty() {
+		return dirty;
+	}
+	
 	
 	
     // Events:
@@ -1531,6 +1623,8 @@ public class Faction implements MinuteTicker, DaytimeTicker{
 			
 			if(dailyKills.add(attacker.getName())){
 				
+				markDirty();
+				
 				Double reward = EconomyConfiguration.config().getFactionKillReward(defender, defenderFaction);
 				payCoins(reward);
 				
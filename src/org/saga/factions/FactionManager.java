@@ -287,20 +287,40 @@ public class FactionManager {
 	}
 	
 	/**
-	 * Saves faction manager.
+	 * Saves changed factions.
 	 * 
 	 */
 	public static void save() {
+		save(false);
+	}
+	
+	/**
+	 * Saves faction manager.
+	 * 
+	 * @param all true if unchanged factions should also be saved
+	 */
+	public static void save(boolean all) {
 
 		// Inform:
 		SagaLogger.info("Saving factions.");
 
 		// Save factions:
+		int skipped = 0;
 		Collection<Faction> factions = manager().loadedFactions.values();
 		for (Faction faction : factions) {
+			
+			if(!all && !faction.isDirty()){
+				skipped++;
+				continue;
+			}
+			
 			faction.save();
+			
 		}
 		
+		// Inform:
+		if(skipped > 0) SagaLogger.info("Skipped " + skipped + " unchanged factions.");
+		
 		
 	}
 	
@@ -313,7 +333,7 @@ public class FactionManager {
 		// Inform:
 		SagaLogger.info("Unloading factions.");
 		
-		save();
+		save(true);
 		instance = null;
 		
 	}
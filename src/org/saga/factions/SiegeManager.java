@@ -4,6 +4,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -11,6 +13,7 @@ import java.util.Set;
 import org.bukkit.craftbukkit.libs.com.google.gson.JsonParseException;
 import org.saga.Clock;
 import org.saga.Clock.SecondTicker;
+import org.saga.Saga;
 import org.saga.SagaLogger;
 import org.saga.buildings.Building;
 import org.saga.config.FactionConfiguration;
@@ -20,6 +23,7 @@ import org.saga.saveload.Directory;
 import org.saga.saveload.WriterReader;
 import org.saga.settlements.Bundle;
 import org.saga.settlements.BundleManager;
+import org.saga.settlements.SagaChunk;
 import org.saga.settlements.Settlement;
 
 public class SiegeManager implements SecondTicker{
@@ -83,6 +87,38 @@ public class SiegeManager implements SecondTicker{
 	transient private Hashtable<Integer, Integer> defenders;
 	
 	
+	/**
+	 * Sieging player counts, by bundle and faction.
+	 */
+	transient private HashMap<Integer, HashMap<Integer, Integer>> occupancy;
+	
+	/**
+	 * Occupied bundle and faction IDs, by player name.
+	 */
+	transient private HashMap<String, int[]> occupants;
+	
+	/**
+	 * Claim version the occupancy was built with.
+	 */
+	transient private int occupancyVersion = -1;
+	
+	
+	/**
+	 * Owned bundle IDs, by faction ID.
+	 */
+	transient private HashMap<Integer, HashSet<Integer>> ownedBundles;
+	
+	/**
+	 * Available ranks, by faction ID. Removed when ownership or buildings change.
+	 */
+	transient private HashMap<Integer, Hashtable<String, Double>> ranks;
+	
+	/**
+	 * True if the manager has changed since the last save.
+	 */
+	transient private boolean dirty = false;
+	
+	
 	
 	// Initialisation:
 	/**
@@ -102,6 +138,13 @@ public class SiegeManager implements SecondTicker{
 		attackers = new Hashtable<Integer, Integer>();
 		defenders = new Hashtable<Integer, Integer>();
 		
+		occupancy = new HashMap<Integer, HashMap<Integer,Integer>>();
+		occupants = new HashMap<String, int[]>();
+		occupancyVersion = -1;
+		
+		ownedBundles = new HashMap<Integer, HashSet<Integer>>();
+		ranks = new HashMap<Integer, Hashtable<String,Double>>();
+		
 	}
 
 	/**
@@ -156,6 +199,7 @@ public class SiegeManager implements SecondTicker{
 				SagaLogger.severe(getClass(), "siege declaration and date not synchronised");
 				SagaLogger.info(getClass(), "removing declaration for ID " + factionID);
 				declaredSieges.remove(factionID);
+				dirty = true;
 				continue;
 			}
 
@@ -163,6 +207,7 @@ public class SiegeManager implements SecondTicker{
 			Integer owningID = owningFaction.get(bundleID);
 			if(owningID != null && owningID.equals(factionID)){
 				declaredSieges.remove(bundleID);
+				dirty = true;
 				declaredDates.get(bundleID);
 				SagaLogger.severe(getClass(), "sieged bundle with ID " + bundleID + " is already owned by faction ID " + factionID);
 			}
@@ -173,6 +218,16 @@ public class SiegeManager implements SecondTicker{
 		// Transient:
 		attackers = new Hashtable<Integer, Integer>();
 		defenders = new Hashtable<Integer, Integer>();
+		occupancy = new HashMap<Integer, HashMap<Integer,Integer>>();
+		occupants = new HashMap<String, int[]>();
+		occupancyVersion = -1;
+		
+		ranks = new HashMap<Integer, Hashtable<String,Double>>();
+		ownedBundles = new HashMap<Integer, HashSet<Integer>>();
+		Set<Entry<Integer, Integer>> owners = owningFaction.entrySet();
+		for (Entry<Integer, Integer> owner : owners) {
+			indexOwner(owner.getKey(), owner.getValue());
+		}
 		
 		
 	}
@@ -190,6 +245,7 @@ public class SiegeManager implements SecondTicker{
 		
 		declaredSieges.put(bundleID, factionID);
 		declaredDates.put(bundleID, System.currentTimeMillis());
+		dirty = true;
 		
 	}
 
@@ -286,6 +342,7 @@ public class SiegeManager implements SecondTicker{
 			SagaLogger.severe(getClass(), "missing declaration date for bundle ID " + bundleID);
 			SagaLogger.info(getClass(), "removing declaration");
 			declaredSieges.remove(bundleID);
+			dirty = true;
 			return null;
 		}
 		
@@ -323,18 +380,17 @@ public class SiegeManager implements SecondTicker{
 
 		Integer defenderID = owningFaction.get(bundleID);
 		
-		// Get members:
-		Collection<SagaPlayer> attakcerMembers = findSiegingMembers(attackerID, bundleID);
-		Collection<SagaPlayer> defenderMembers;
-		if(defenderID != null) defenderMembers = findSiegingMembers(defenderID, bundleID);
-		else defenderMembers = new ArrayList<SagaPlayer>();
+		// Get counts:
+		int attackerCount = getOccupancy(bundleID, attackerID);
+		int defenderCount = 0;
+		if(defenderID != null) defenderCount = getOccupancy(bundleID, defenderID);
 		
 		// Set counts:
-		attackers.put(bundleID, attakcerMembers.size());
-		defenders.put(bundleID, defenderMembers.size());
+		attackers.put(bundleID, attackerCount);
+		defenders.put(bundleID, defenderCount);
 		
 		// Progress:
-		int difference = attakcerMembers.size() - defenderMembers.size();
+		int difference = attackerCount - defenderCount;
 		double siegePts = getSiegePtsPerSecond(bundleID, difference);
 		Double progress = modSiegeProgress(bundleID, siegePts);
 		
@@ -417,6 +473,7 @@ public class SiegeManager implements SecondTicker{
 		
 		Double amount = getSiegeProgress(bundleID) + mod;
 		siegeProgresses.put(bundleID, amount);
+		dirty = true;
 		
 		return amount;
 		
@@ -507,14 +564,10 @@ public class SiegeManager implements SecondTicker{
 	 */
 	public ArrayList<Integer> getOwnedBundleIDs(Integer factionID) {
 		
-		ArrayList<Integer> bundleIDs = new ArrayList<Integer>();
+		HashSet<Integer> bundleIDs = ownedBundles.get(factionID);
+		if(bundleIDs == null) return new ArrayList<Integer>();
 		
-		Set<Entry<Integer, Integer>> owned = owningFaction.entrySet();
-		for (Entry<Integer, Integer> owner : owned) {
-			if(owner.getValue().equals(factionID)) bundleIDs.add(owner.getKey());
-		}
-		
-		return bundleIDs;
+		return new ArrayList<Integer>(bundleIDs);
 		
 	}
 	
@@ -592,6 +645,141 @@ public class SiegeManager implements SecondTicker{
 	
 	
 	
+	// Occupancy:
+	/**
+	 * Updates the players occupancy after a chunk or faction change.
+	 * Players on bundle borders don't occupy the bundle.
+	 * 
+	 * @param sagaPlayer saga player
+	 */
+	public void updateOccupancy(SagaPlayer sagaPlayer) {
+		
+		
+		removeOccupancy(sagaPlayer);
+		
+		// Not in a bundle:
+		SagaChunk sagaChunk = sagaPlayer.lastSagaChunk;
+		if(sagaChunk == null || sagaChunk.getBundle() == null) return;
+		
+		// Not in a faction:
+		Integer factionID = sagaPlayer.getFactionId();
+		if(factionID == -1) return;
+		
+		// On the border:
+		if(sagaChunk.isBorder()) return;
+		
+		Integer bundleID = sagaChunk.getBundle().getId();
+		occupants.put(sagaPlayer.getName(), new int[]{bundleID, factionID});
+		modOccupancy(bundleID, factionID, 1);
+		
+		
+	}
+	
+	/**
+	 * Updates the occupancy of the bundles online members.
+	 * Limited members occupy for the owning faction, so ownership changes move them.
+	 * 
+	 * @param bundleID bundle ID
+	 */
+	private void updateOccupancy(Integer bundleID) {
+		
+		Bundle bundle = BundleManager.manager().getBundle(bundleID);
+		if(bundle == null) return;
+		
+		for (SagaPlayer sagaPlayer : bundle.getOnlineMembers()) {
+			updateOccupancy(sagaPlayer);
+		}
+		
+	}
+	
+	/**
+	 * Removes the players occupancy.
+	 * 
+	 * @param sagaPlayer saga player
+	 */
+	public void removeOccupancy(SagaPlayer sagaPlayer) {
+		
+		int[] occupied = occupants.remove(sagaPlayer.getName());
+		if(occupied != null) modOccupancy(occupied[0], occupied[1], -1);
+		
+	}
+	
+	/**
+	 * Modifies the sieging player count.
+	 * 
+	 * @param bundleID bundle ID
+	 * @param factionID faction ID
+	 * @param mod count modification
+	 */
+	private void modOccupancy(Integer bundleID, Integer factionID, int mod) {
+		
+		
+		HashMap<Integer, Integer> counts = occupancy.get(bundleID);
+		if(counts == null){
+			counts = new HashMap<Integer, Integer>();
+			occupancy.put(bundleID, counts);
+		}
+		
+		Integer count = counts.get(factionID);
+		if(count == null) count = 0;
+		count+= mod;
+		
+		if(count > 0){
+			counts.put(factionID, count);
+		}else{
+			counts.remove(factionID);
+			if(counts.isEmpty()) occupancy.remove(bundleID);
+		}
+		
+		
+	}
+	
+	/**
+	 * Gets the number of faction players sieging a bundle.
+	 * 
+	 * @param bundleID bundle ID
+	 * @param factionID faction ID
+	 * @return number of sieging players
+	 */
+	public int getOccupancy(Integer bundleID, Integer factionID) {
+		
+		
+		refreshOccupancy();
+		
+		HashMap<Integer, Integer> counts = occupancy.get(bundleID);
+		if(counts == null) return 0;
+		
+		Integer count = counts.get(factionID);
+		if(count == null) return 0;
+		return count;
+		
+		
+	}
+	
+	/**
+	 * Rebuilds the occupancy if claims changed, because border chunks may have changed.
+	 * 
+	 */
+	private void refreshOccupancy() {
+		
+		
+		int version = BundleManager.manager().getClaimVersion();
+		if(occupancyVersion == version) return;
+		
+		occupancy.clear();
+		occupants.clear();
+		occupancyVersion = version;
+		
+		Collection<SagaPlayer> sagaPlayers = Saga.plugin().getLoadedPlayers();
+		for (SagaPlayer sagaPlayer : sagaPlayers) {
+			updateOccupancy(sagaPlayer);
+		}
+		
+		
+	}
+	
+	
+	
 	// Concluding:
 	/**
 	 * Handles siege success.
@@ -610,6 +798,7 @@ public class SiegeManager implements SecondTicker{
 		
 		declaredSieges.remove(bundleID);
 		declaredDates.remove(bundleID);
+		dirty = true;
 		
 		attackers.remove(bundleID);
 		defenders.remove(bundleID);
@@ -624,7 +813,7 @@ public class SiegeManager implements SecondTicker{
 		}
 		
 		// Set owner:
-		owningFaction.put(bundleID, attackerID);
+		setOwnerFaction(bundleID, attackerID);
 		
 		// Involved parties:
 		Faction attacker = FactionManager.manager().getFaction(attackerID);
@@ -655,6 +844,7 @@ public class SiegeManager implements SecondTicker{
 		
 		declaredSieges.remove(bundleID);
 		declaredDates.remove(bundleID);
+		dirty = true;
 		
 		attackers.remove(bundleID);
 		defenders.remove(bundleID);
@@ -720,7 +910,7 @@ public class SiegeManager implements SecondTicker{
 	 * @param factionID faction ID
 	 */
 	public void handleSetOwnerFaction(Integer bundleID, Integer factionID) {
-		owningFaction.put(bundleID, factionID);
+		setOwnerFaction(bundleID, factionID);
 	}
 	
 	/**
@@ -737,6 +927,7 @@ public class SiegeManager implements SecondTicker{
 		Integer capitalID = factionCapital.get(factionID);
 		if(capitalID != null && capitalID.equals(bundleID)){
 			factionCapital.remove(factionID);
+			dirty = true;
 		}
 		
 	}
@@ -794,7 +985,141 @@ public class SiegeManager implements SecondTicker{
 	 * @return removed owning faction, null if none
 	 */
 	private Integer removeOwnerFaction(Integer bundleID) {
-		return owningFaction.remove(bundleID);
+		
+		dirty = true;
+		
+		unregisterLimited(bundleID, owningFaction.get(bundleID));
+		
+		Integer factionID = owningFaction.remove(bundleID);
+		if(factionID != null) unindexOwner(bundleID, factionID);
+		
+		updateOccupancy(bundleID);
+		
+		updateChat(bundleID, factionID);
+		
+		return factionID;
+		
+	}
+	
+	/**
+	 * Sets the owner of the bundle.
+	 * 
+	 * @param bundleID bundle ID
+	 * @param factionID owning faction ID
+	 */
+	private void setOwnerFaction(Integer bundleID, Integer factionID) {
+		
+		dirty = true;
+		
+		unregisterLimited(bundleID, owningFaction.get(bundleID));
+		
+		Integer previousID = owningFaction.put(bundleID, factionID);
+		if(previousID != null) unindexOwner(bundleID, previousID);
+		
+		indexOwner(bundleID, factionID);
+		
+		registerLimited(bundleID, factionID);
+		
+		updateOccupancy(bundleID);
+		
+		updateChat(bundleID, previousID);
+		updateChat(bundleID, factionID);
+		
+	}
+	
+	/**
+	 * Removes the bundles online limited members from the owning faction online players.
+	 * Called before an ownership change.
+	 * 
+	 * @param bundleID bundle ID
+	 * @param factionID owning faction ID, null if none
+	 */
+	private void unregisterLimited(Integer bundleID, Integer factionID) {
+		
+		if(factionID == null) return;
+		
+		Bundle bundle = BundleManager.manager().getBundle(bundleID);
+		Faction faction = FactionManager.manager().getFaction(factionID);
+		if(bundle == null || faction == null) return;
+		
+		for (SagaPlayer sagaPlayer : bundle.getOnlineMembers()) {
+			if(faction.isLimitedMember(sagaPlayer)) faction.removeOnlinePlayer(sagaPlayer);
+		}
+		
+	}
+	
+	/**
+	 * Adds the bundles online limited members to the owning faction online players.
+	 * Called after an ownership change.
+	 * 
+	 * @param bundleID bundle ID
+	 * @param factionID owning faction ID
+	 */
+	private void registerLimited(Integer bundleID, Integer factionID) {
+		
+		Bundle bundle = BundleManager.manager().getBundle(bundleID);
+		Faction faction = FactionManager.manager().getFaction(factionID);
+		if(bundle == null || faction == null) return;
+		
+		for (SagaPlayer sagaPlayer : bundle.getOnlineMembers()) {
+			if(faction.isLimitedMember(sagaPlayer)) faction.addOnlinePlayer(sagaPlayer);
+		}
+		
+	}
+	
+	/**
+	 * Publishes chat prefixes after an ownership change.
+	 * Formation depends on owned bundles and limited members take the owners faction.
+	 * 
+	 * @param bundleID bundle ID
+	 * @param factionID owning faction ID, null if none
+	 */
+	private void updateChat(Integer bundleID, Integer factionID) {
+		
+		Bundle bundle = BundleManager.manager().getBundle(bundleID);
+		if(bundle != null) bundle.updateChat();
+		
+		if(factionID == null) return;
+		Faction faction = FactionManager.manager().getFaction(factionID);
+		if(faction != null) faction.updateChat();
+		
+	}
+	
+	/**
+	 * Adds an owned bundle to the faction index.
+	 * 
+	 * @param bundleID bundle ID
+	 * @param factionID owning faction ID
+	 */
+	private void indexOwner(Integer bundleID, Integer factionID) {
+		
+		HashSet<Integer> bundleIDs = ownedBundles.get(factionID);
+		if(bundleIDs == null){
+			bundleIDs = new HashSet<Integer>();
+			ownedBundles.put(factionID, bundleIDs);
+		}
+		bundleIDs.add(bundleID);
+		
+		ranks.remove(factionID);
+		
+	}
+	
+	/**
+	 * Removes an owned bundle from the faction index.
+	 * 
+	 * @param bundleID bundle ID
+	 * @param factionID previous owning faction ID
+	 */
+	private void unindexOwner(Integer bundleID, Integer factionID) {
+		
+		HashSet<Integer> bundleIDs = ownedBundles.get(factionID);
+		if(bundleIDs != null){
+			bundleIDs.remove(bundleID);
+			if(bundleIDs.isEmpty()) ownedBundles.remove(factionID);
+		}
+		
+		ranks.remove(factionID);
+		
 	}
 
 	
@@ -812,7 +1137,7 @@ public class SiegeManager implements SecondTicker{
 		if(owningFaction.get(bundle.getId()) != null) return;
 		
 		// Set as owner:
-		owningFaction.put(bundle.getId(), faction.getId());
+		setOwnerFaction(bundle.getId(), faction.getId());
 		
 		// Inform:
 		faction.information(WarMessages.affiliationJoined(faction, bundle));
@@ -850,6 +1175,7 @@ public class SiegeManager implements SecondTicker{
 	 */
 	public void setAffiliation(Integer bundleID, Integer factionID) {
 		affiliation.put(bundleID, factionID);
+		dirty = true;
 	}
 	
 	/**
@@ -859,6 +1185,7 @@ public class SiegeManager implements SecondTicker{
 	 */
 	public void removeAffiliation(Integer bundleID) {
 		affiliation.remove(bundleID);
+		dirty = true;
 	}
 	
 	/**
@@ -918,6 +1245,7 @@ public class SiegeManager implements SecondTicker{
 	 */
 	public void setCapitalID(Integer factionID, Integer bundleID) {
 		factionCapital.put(factionID, bundleID);
+		dirty = true;
 	}
 
 	/**
@@ -927,6 +1255,7 @@ public class SiegeManager implements SecondTicker{
 	 */
 	public void removeCapitalID(Integer factionID) {
 		factionCapital.remove(factionID);
+		dirty = true;
 	}
 	
 	
@@ -934,14 +1263,18 @@ public class SiegeManager implements SecondTicker{
 	// Bonuses from settlements:
 	/**
 	 * Gets all ranks for the given faction.
+	 * The ranks are calculated again only after ownership or buildings change.
 	 * 
 	 * @param factionID faction ID
-	 * @return faction ranks
+	 * @return faction ranks, shouldn't be modified
 	 */
 	public Hashtable<String, Double> getRanks(Integer factionID) {
 
 		
-		Hashtable<String, Double> ranks = new Hashtable<String, Double>();
+		Hashtable<String, Double> ranks = this.ranks.get(factionID);
+		if(ranks != null) return ranks;
+		
+		ranks = new Hashtable<String, Double>();
 		
 		ArrayList<Bundle> bundles = getOwnedBundles(factionID);
 		for (Bundle bundle : bundles) {
@@ -965,11 +1298,25 @@ public class SiegeManager implements SecondTicker{
 			
 		}
 		
+		this.ranks.put(factionID, ranks);
+		
 		return ranks;
 		
 		
 	}
 	
+	/**
+	 * Handles building changes in a bundle.
+	 * 
+	 * @param bundleID bundle ID
+	 */
+	public void handleBuildingChange(Integer bundleID) {
+		
+		Integer factionID = owningFaction.get(bundleID);
+		if(factionID != null) ranks.remove(factionID);
+		
+	}
+	
 	
 	
 	// Total removal:
@@ -1002,25 +1349,35 @@ public class SiegeManager implements SecondTicker{
 		}
 		
 		// Owner:
-		Set<Entry<Integer, Integer>> owners = owningFaction.entrySet();
+		ArrayList<Integer> ownedIDs = getOwnedBundleIDs(factonID);
 		
-		for (Entry<Integer, Integer> owner : owners) {
+		for (Integer ownedID : ownedIDs) {
 			
-			if(owner.getValue().equals(factonID)) owningFaction.remove(owner.getKey());
+			removeOwnerFaction(ownedID);
 			
 		}
 		
 		// Affiliation:
 		Set<Entry<Integer, Integer>> affiliations = affiliation.entrySet();
+		ArrayList<Integer> affiliatedIDs = new ArrayList<Integer>();
 		
 		for (Entry<Integer, Integer> affiliation : affiliations) {
 			
-			if(affiliation.getValue().equals(factonID)) owningFaction.remove(affiliation.getKey());
+			if(affiliation.getValue().equals(factonID)) affiliatedIDs.add(affiliation.getKey());
+			
+		}
+		
+		for (Integer affiliatedID : affiliatedIDs) {
+			
+			affiliation.remove(affiliatedID);
 			
 		}
 		
+		ranks.remove(factonID);
+		
 		// Capital:
 		factionCapital.remove(factonID);
+		dirty = true;
 		
 		
 	}
@@ -1039,7 +1396,7 @@ public class SiegeManager implements SecondTicker{
 		defenders.remove(bundleID);
 		
 		// Owner:
-		owningFaction.remove(bundleID);
+		removeOwnerFaction(bundleID);
 		
 		// Affiliation:
 		affiliation.remove(bundleID);
@@ -1051,6 +1408,8 @@ public class SiegeManager implements SecondTicker{
 			if(capital.getValue().equals(bundleID)) factionCapital.remove(capital.getKey());
 		}
 		
+		dirty = true;
+		
 		
 	}
 	
@@ -1080,6 +1439,7 @@ public class SiegeManager implements SecondTicker{
 				SagaLogger.severe(getClass(), "dates and declarations not synchronised for bundle ID " + bundleID);
 				SagaLogger.info(getClass(), "removing declaration");
 				declaredSieges.remove(bundleID);
+				dirty = true;
 				continue;
 			}
 			
@@ -1119,7 +1479,7 @@ public class SiegeManager implements SecondTicker{
 		if(!WriterReader.checkExists(Directory.SIEGES)){
 			
 			instance = new SiegeManager("");
-			save();
+			save(true);
         	
         }
 		
@@ -1170,7 +1530,7 @@ public class SiegeManager implements SecondTicker{
 		// Inform:
 		SagaLogger.info("Unloading sieges.");
 		
-		save();
+		save(true);
 		
 		instance = null;
 		
@@ -1178,18 +1538,34 @@ public class SiegeManager implements SecondTicker{
 	}
 	
 	/**
-	 * Saves the manager.
+	 * Saves the manager if it has changed.
 	 * 
 	 */
 	public static void save(){
+		save(false);
+	}
+	
+	/**
+	 * Saves the manager.
+	 * 
+	 * @param all true if the manager should be saved even if unchanged
+	 */
+	public static void save(boolean all){
 
 		
+		// Unchanged:
+		if(!all && !instance.dirty){
+			SagaLogger.info("Skipping unchanged sieges.");
+			return;
+		}
+		
 		// Inform:
 		SagaLogger.info("Saving sieges.");
 		
 		try {
 			
 			WriterReader.write(Directory.SIEGES, instance);
+			instance.dirty = false;
 			
 		} catch (IOException e) {
 			
@@ -51,6 +51,11 @@ public class WarManager implements SecondTicker{
 	 */
 	private Hashtable<Integer, Hashtable<Integer, Long>> peaceTimes;
 	
+	/**
+	 * True if the manager has changed since the last save.
+	 */
+	transient private boolean dirty = false;
+	
 	
 	
 	// Initialisation:
@@ -116,6 +121,7 @@ public class WarManager implements SecondTicker{
 		}
 		
 		declared.add(defender);
+		dirty = true;
 		
 	}
 	
@@ -132,6 +138,7 @@ public class WarManager implements SecondTicker{
 		
 		declared.remove(defenderID);
 		if(declared.size() == 0) warsDeclared.remove(attackerID);
+		dirty = true;
 		
 	}
 	
@@ -248,6 +255,7 @@ public class WarManager implements SecondTicker{
 		Long time = System.currentTimeMillis();
 		peaceTimes1.put(faction2ID, time);
 		peaceTimes2.put(faction1ID, time);
+		dirty = true;
 		
 	}
 	
@@ -285,6 +293,7 @@ public class WarManager implements SecondTicker{
 		}
 		
 		declared.add(defender);
+		dirty = true;
 		
 	}
 	
@@ -301,6 +310,7 @@ public class WarManager implements SecondTicker{
 		
 		declared.remove(defenderID);
 		if(declared.size() == 0) alliancesDeclared.remove(attackerID);
+		dirty = true;
 		
 	}
 	
@@ -404,7 +414,7 @@ public class WarManager implements SecondTicker{
 		if(!WriterReader.checkExists(Directory.WARS)){
 			
 			instance = new WarManager("");
-			save();
+			save(true);
         	
         }
 		
@@ -455,7 +465,7 @@ public class WarManager implements SecondTicker{
 		// Inform:
 		SagaLogger.info("Unloading wars.");
 		
-		save();
+		save(true);
 		
 		instance = null;
 		
@@ -463,18 +473,34 @@ public class WarManager implements SecondTicker{
 	}
 	
 	/**
-	 * Saves the manager.
+	 * Saves the manager if it has changed.
 	 * 
 	 */
 	public static void save(){
+		save(false);
+	}
+	
+	/**
+	 * Saves the manager.
+	 * 
+	 * @param all true if the manager should be saved even if unchanged
+	 */
+	public static void save(boolean all){
 
 		
+		// Unchanged:
+		if(!all && !instance.dirty){
+			SagaLogger.info("Skipping unchanged wars.");
+			return;
+		}
+		
 		// Inform:
 		SagaLogger.info("Saving wars.");
 		
 		try {
 			
 			WriterReader.write(Directory.WARS, instance);
+			instance.dirty = false;
 			
 		} catch (IOException e) {
 			
@@ -1,13 +1,16 @@
 package org.saga.listeners;
 
 
-import org.bukkit.Location;
+import java.util.List;
+
 import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.block.BlockSpreadEvent;
 import org.bukkit.event.block.SignChangeEvent;
@@ -33,7 +36,7 @@ public class BlockListener implements Listener{
 		if(GeneralConfiguration.isDisabled(event.getPlayer().getLocation().getWorld())) return;
     	
 		// Cancel build on failure:
-		SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(event.getPlayer().getName());
+		SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(event.getPlayer());
     	if(sagaPlayer == null){
     		event.setCancelled(true);
     		return;
@@ -41,7 +44,7 @@ public class BlockListener implements Listener{
     	
     	
 		// Get saga chunk:
-    	SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(event.getBlock().getLocation());
+    	SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(event.getBlock());
     	
     	// Build event:
     	SagaBuildEvent buildEvent = new SagaBuildEvent(event, sagaPlayer, sagaChunk);
@@ -76,7 +79,7 @@ public class BlockListener implements Listener{
 		if(GeneralConfiguration.isDisabled(event.getPlayer().getLocation().getWorld())) return;
 		
 		// Cancel build on failure:
-		SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(event.getPlayer().getName());
+		SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(event.getPlayer());
     	if(sagaPlayer == null){
     		event.setCancelled(true);
     		return;
@@ -85,7 +88,7 @@ public class BlockListener implements Listener{
     	
 		// Get saga chunk:
     	Block block = event.getBlock();
-		SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(event.getBlock().getLocation());
+		SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(block);
 
     	// Build event:
     	SagaBuildEvent bldEvent = new SagaBuildEvent(event, sagaPlayer, sagaChunk);
@@ -115,13 +118,12 @@ public class BlockListener implements Listener{
 		if(GeneralConfiguration.isDisabled(event.getPlayer().getLocation().getWorld())) return;
     	
 		// Saga player:
-		SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(event.getPlayer().getName());
+		SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(event.getPlayer());
     	if(sagaPlayer == null) return;
     	
     	
     	// Get saga chunk:
-    	Location location = event.getBlock().getLocation();
-    	SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(location.getWorld().getChunkAt(location));
+    	SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(event.getBlock());
     	
     	// Build event:
     	SagaBuildEvent buildEvent = new SagaBuildEvent(event, sagaPlayer, sagaChunk);
@@ -144,8 +146,7 @@ public class BlockListener implements Listener{
 		
 		
     	// Get saga chunk:
-    	Location location = event.getBlock().getLocation();
-    	SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(location);
+    	SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(event.getBlock());
     	
     	// Forward to chunk:
     	if(sagaChunk != null) sagaChunk.getBundle().onBlockSpread(event, sagaChunk);
@@ -162,12 +163,50 @@ public class BlockListener implements Listener{
     	
 		
 		// Get saga chunk:
-    	Location location = event.getBlock().getLocation();
-    	SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(location.getWorld().getChunkAt(location));
+    	SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(event.getBlock());
     	
     	// Forward to chunk:
     	if(sagaChunk != null) sagaChunk.getBundle().onBlockFromTo(event, sagaChunk);
     	
+    	if(event.isCancelled()) return;
+    	
+    	// Storage change:
+    	BundleManager.manager().invalidateStorage(event.getToBlock());
+    	
+		
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onBlockPistonExtend(BlockPistonExtendEvent event) {
+
+
+		// Saga disabled:
+		if(GeneralConfiguration.isDisabled(event.getBlock().getWorld())) return;
+		
+		
+		// Storage change:
+		List<Block> blocks = event.getBlocks();
+		for (Block block : blocks) {
+			BundleManager.manager().invalidateStorage(block);
+			BundleManager.manager().invalidateStorage(block.getRelative(event.getDirection()));
+		}
+		BundleManager.manager().invalidateStorage(event.getBlock().getRelative(event.getDirection()));
+		
+		
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onBlockPistonRetract(BlockPistonRetractEvent event) {
+
+
+		// Saga disabled:
+		if(GeneralConfiguration.isDisabled(event.getBlock().getWorld())) return;
+		
+		
+		// Storage change:
+		BundleManager.manager().invalidateStorage(event.getBlock().getRelative(event.getDirection()));
+		if(event.isSticky()) BundleManager.manager().invalidateStorage(event.getRetractLocation().getBlock());
+		
 		
 	}
 
@@ -2,9 +2,7 @@ package org.saga.listeners;
 
 import java.util.List;
 
-import org.bukkit.Chunk;
 import org.bukkit.GameMode;
-import org.bukkit.Location;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Creature;
 import org.bukkit.entity.Creeper;
@@ -18,6 +16,7 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.block.EntityBlockFormEvent;
 import org.bukkit.event.entity.CreatureSpawnEvent;
 import org.bukkit.event.entity.CreatureSpawnEvent.SpawnReason;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
@@ -102,7 +101,7 @@ public class EntityListener implements Listener{
 			
 			Player player = (Player) projectile.getShooter();
 			
-	    	SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(player.getName());
+	    	SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(player);
 	    	if(sagaPlayer == null) return;
 	    	
 	    	sagaPlayer.getAbilityManager().onProjectileHit(event);
@@ -142,6 +141,28 @@ public class EntityListener implements Listener{
 		// Forward to saga chunk:
 		if(sagaChunk != null) sagaChunk.onEntityExplode(event);
 		
+		if(event.isCancelled()) return;
+		
+		// Storage change:
+		List<Block> blocks = event.blockList();
+		for (Block block : blocks) {
+			BundleManager.manager().invalidateStorage(block);
+		}
+		
+		
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+		
+		
+		// Saga disabled:
+		if(GeneralConfiguration.isDisabled(event.getBlock().getWorld())) return;
+		
+		
+		// Storage change:
+		BundleManager.manager().invalidateStorage(event.getBlock());
+		
 		
 	}
 	
@@ -154,7 +175,7 @@ public class EntityListener implements Listener{
     	
 		
 		// Get saga chunk:
-		SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(event.getBlock().getLocation());
+		SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(event.getBlock());
 		
 		// Forward to saga chunk:
 		if(sagaChunk != null) sagaChunk.onEntityBlockForm(event);
@@ -213,9 +234,7 @@ public class EntityListener implements Listener{
 			SagaPlayer defenderPlayer = (SagaPlayer) sagaDefender;
 			
 			// Get saga chunk:
-			Location location = sagaAttacker.getLocation();
-			Chunk chunk = location.getWorld().getChunkAt(location);
-			SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(chunk);
+			SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(sagaAttacker.getLocation());
 			
 			// Forward to chunk:
 			if(sagaChunk != null) sagaChunk.onPvpKill(attackerPlayer, defenderPlayer);
@@ -264,7 +283,7 @@ public class EntityListener implements Listener{
 
 			// Get player:
 			Player player = (Player) event.getTarget();
-	    	SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(player.getName());
+	    	SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(player);
 	    	if(sagaPlayer == null) return;
 
 	    	// Forward to managers:
@@ -1,9 +1,85 @@
 package org.saga.listeners;
 
+import org.bukkit.block.Chest;
+import org.bukkit.block.DoubleChest;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.inventory.InventoryHolder;
+import org.saga.settlements.BundleManager;
 
 public class InventoryListener implements Listener{
 	
 	
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onInventoryClose(InventoryCloseEvent event) {
+		
+		
+		// Storage change:
+		handleChange(event.getInventory().getHolder());
+		
+		
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onInventoryClick(InventoryClickEvent event) {
+		
+		
+		// Storage change:
+		handleChange(event.getInventory().getHolder());
+		
+		
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onInventoryDrag(InventoryDragEvent event) {
+		
+		
+		// Storage change:
+		handleChange(event.getInventory().getHolder());
+		
+		
+	}
+	
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onInventoryMoveItem(InventoryMoveItemEvent event) {
+		
+		
+		// Storage change:
+		handleChange(event.getSource().getHolder());
+		handleChange(event.getDestination().getHolder());
+		
+		
+	}
+	
+	
+	
+	// Storage:
+	/**
+	 * Marks chest storage blocks as changed.
+	 * 
+	 * @param holder inventory holder
+	 */
+	private void handleChange(InventoryHolder holder) {
+
+		
+		// Chest:
+		if(holder instanceof Chest){
+			BundleManager.manager().invalidateStorage(((Chest) holder).getBlock());
+		}
+		
+		// Double chest:
+		else if(holder instanceof DoubleChest){
+			handleChange(((DoubleChest) holder).getLeftSide());
+			handleChange(((DoubleChest) holder).getRightSide());
+		}
+		
+		
+	}
+	
 	
 }
@@ -27,9 +27,9 @@ import org.saga.dependencies.ChatDependency;
 import org.saga.listeners.events.SagaBuildEvent;
 import org.saga.listeners.events.SagaEventHandler;
 import org.saga.player.GuardianRune;
+import org.saga.player.RegionContext;
 import org.saga.player.SagaPlayer;
 import org.saga.settlements.Bundle;
-import org.saga.settlements.BundleManager;
 import org.saga.settlements.SagaChunk;
 
 public class PlayerListener implements Listener {
@@ -43,7 +43,7 @@ public class PlayerListener implements Listener {
 		if(GeneralConfiguration.isDisabled(event.getPlayer().getWorld())) return;
 		
 		// Get Saga player:
-		SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(event.getPlayer().getName());
+		SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(event.getPlayer());
 		if(sagaPlayer == null) return;
 
 
@@ -55,7 +55,7 @@ public class PlayerListener implements Listener {
 		
 		// Get saga chunk:
 		Location location = event.getPlayer().getLocation();
-		SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(location);
+		SagaChunk sagaChunk = sagaPlayer.getRegion().getSagaChunk(location);
 
 		// Forward to chunk:
 		if(sagaChunk != null) sagaChunk.onPlayerCommandPreprocess(sagaPlayer, event);
@@ -84,7 +84,7 @@ public class PlayerListener implements Listener {
 		}
 
 		// Set player:
-		sagaPlayer.setPlayer(player);
+		Saga.plugin().setOnlinePlayer(player, sagaPlayer);
 		
 		
 		if(GeneralConfiguration.isDisabled(event.getPlayer().getWorld())) return;
@@ -100,7 +100,7 @@ public class PlayerListener implements Listener {
 
 		
 		Player player = event.getPlayer();
-		SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(player.getName());
+		SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(player);
 		
 		if(sagaPlayer == null){
 			SagaLogger.severe(PlayerListener.class, "can't continue with onPlayerQuit, because the saga player for "+ event.getPlayer().getName() + " isn't loaded");
@@ -133,7 +133,7 @@ public class PlayerListener implements Listener {
 		if(GeneralConfiguration.isDisabled(event.getPlayer().getWorld())) return;
 		
 		// Get Saga player:
-		SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(event.getPlayer().getName());
+		SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(event.getPlayer());
 		if(sagaPlayer == null) return;
 		
 		
@@ -158,13 +158,12 @@ public class PlayerListener implements Listener {
 		
 		
 		// Chunk changed:
-		if(event.getFrom().getChunk() == event.getTo().getChunk()) return;
-		
-		// Saga disabled:
-		if(GeneralConfiguration.isDisabled(event.getPlayer().getWorld())) return;
+		Location from = event.getFrom();
+		Location to = event.getTo();
+		if((from.getBlockX() >> 4) == (to.getBlockX() >> 4) && (from.getBlockZ() >> 4) == (to.getBlockZ() >> 4)) return;
 		
 		// Get Saga player:
-		SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(event.getPlayer().getName());
+		SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(event.getPlayer());
 		if(sagaPlayer == null) return;
 		
 		
@@ -182,7 +181,7 @@ public class PlayerListener implements Listener {
 		if(GeneralConfiguration.isDisabled(event.getPlayer().getWorld())) return;
 		
 		// Get Saga player:
-		SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(event.getPlayer().getName());
+		SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(event.getPlayer());
 		if(sagaPlayer == null) return;
 		
 		
@@ -200,7 +199,7 @@ public class PlayerListener implements Listener {
 		if(GeneralConfiguration.isDisabled(event.getPlayer().getWorld())) return;
 		
 		// Get Saga player:
-		SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(event.getPlayer().getName());
+		SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(event.getPlayer());
 		if(sagaPlayer == null) return;
 		
 		
@@ -211,7 +210,7 @@ public class PlayerListener implements Listener {
 		
 		// Get Saga chunk:
 		Location location = event.getClickedBlock() != null ? event.getClickedBlock().getLocation() : event.getPlayer().getLocation();
-		SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(location.getWorld().getChunkAt(location));
+		SagaChunk sagaChunk = sagaPlayer.getRegion().getSagaChunk(location);
 		
 		// Build event:
 		if(SagaBuildEvent.isBuildEvent(event)){
@@ -236,7 +235,7 @@ public class PlayerListener implements Listener {
 		if(GeneralConfiguration.isDisabled(event.getPlayer().getWorld())) return;
 		
 		// Get Saga player:
-		SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(event.getPlayer().getName());
+		SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(event.getPlayer());
 		if(sagaPlayer == null) return;
 		
 		
@@ -255,7 +254,7 @@ public class PlayerListener implements Listener {
 		if(GeneralConfiguration.isDisabled(event.getPlayer().getWorld())) return;
 		
 		// Get Saga player:
-		SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(event.getPlayer().getName());
+		SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(event.getPlayer());
 		if(sagaPlayer == null) return;
 		
 		
@@ -276,7 +275,7 @@ public class PlayerListener implements Listener {
 		// Handle change:
 		if(event.getEntity() instanceof Player){
 
-			SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(((Player)event.getEntity()).getName());
+			SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer((Player) event.getEntity());
 			if(sagaPlayer == null) return;
 			
 			// Handle energy regeneration:
@@ -308,13 +307,18 @@ public class PlayerListener implements Listener {
 		// Coordinates didn't change much:
 		if(x1 == x2 && y1 == y2 && z1 == z2) return;
 		
+		// Same region:
+		RegionContext region = sagaPlayer.getRegion();
+		if(!region.moveTo(l2)) return;
+		
 		SagaChunk sagaChunk1 = sagaPlayer.lastSagaChunk;
-		SagaChunk sagaChunk2 = BundleManager.manager().getSagaChunk(l2);
+		SagaChunk sagaChunk2 = region.getSagaChunk();
 		
 		// No chunk change:
 		if(sagaChunk1 == sagaChunk2) return;
 		
 		sagaPlayer.lastSagaChunk = sagaChunk2;
+		sagaPlayer.updateOccupancy();
 		
 		// Forward to chunk:
 		if(sagaChunk2 != null) sagaChunk2.onPlayerEnter(sagaPlayer, sagaChunk1);
@@ -18,7 +18,7 @@ public class WorldListener implements Listener{
 		if(GeneralConfiguration.isDisabled(event.getWorld())) return;
     	
 		
-		SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(event.getChunk());
+		SagaChunk sagaChunk = BundleManager.manager().getSagaChunk(event.getWorld().getName(), event.getChunk().getX(), event.getChunk().getZ());
 
 		// Forward event:
 		if(sagaChunk != null) sagaChunk.onChunkLoad();
@@ -2,7 +2,6 @@ package org.saga.listeners.events;
 
 import java.util.PriorityQueue;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Creature;
 import org.bukkit.entity.Entity;
@@ -11,7 +10,6 @@ import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
-import org.bukkit.inventory.ItemStack;
 import org.saga.Saga;
 import org.saga.attributes.DamageType;
 import org.saga.config.AttributeConfiguration;
@@ -22,7 +20,6 @@ import org.saga.player.SagaLiving;
 import org.saga.player.SagaPlayer;
 import org.saga.settlements.BundleManager;
 import org.saga.settlements.SagaChunk;
-import org.saga.utility.TwoPointFunction;
 
 public class SagaDamageEvent {
 
@@ -168,7 +165,7 @@ public class SagaDamageEvent {
 		// Get attacker saga player:
 		if(attacker instanceof Player){
 
-			sagaAttacker = Saga.plugin().getLoadedPlayer( ((Player) attacker).getName() );
+			sagaAttacker = Saga.plugin().getSagaPlayer((Player) attacker);
 			creatureAttacker = null;
 			
 			// Tool:
@@ -195,7 +192,7 @@ public class SagaDamageEvent {
 		if(defender instanceof Player){
 
 			creatureDefender = null;
-			sagaDefender = Saga.plugin().getLoadedPlayer( ((Player) defender).getName() );
+			sagaDefender = Saga.plugin().getSagaPlayer((Player) defender);
 			
 		}
 		
@@ -334,13 +331,13 @@ public class SagaDamageEvent {
 			double harm = damage;
 			
 			// Armour:
-			double armour = VanillaConfiguration.getArmourMultiplier(event, sagaDefender.getWrapped()) + penetration;
+			double armour = sagaDefender.getArmourMultiplier(event) + penetration;
 			if(armour < 0.0) armour = 0.0;
 			if(armour > 1.0) armour = 1.0;
 			harm*= armour;
 		
 			// Enchantments:
-			double ench = VanillaConfiguration.getEPFMultiplier(event, sagaDefender.getWrapped()) + disenchant;
+			double ench = sagaDefender.getEPFMultiplier(event) + disenchant;
 			if(ench < 0.0) ench = 0.0;
 			if(ench > 1.0) ench = 1.0;
 			harm*= ench;
@@ -356,33 +353,14 @@ public class SagaDamageEvent {
 			
 		}
 		
-		// Reduce tool damage:
-		final int undurability;
-		if(sagaAttacker != null) undurability = sagaAttacker.getHandItem().getDurability();
-		else undurability = 0;
-		
 		// Reduce armour durability:
 		if(sagaDefender != null && VanillaConfiguration.checkArmourDamage(event.getCause())) sagaDefender.damageArmour();
 		
-		// Schedule for next tick:
-		Bukkit.getServer().getScheduler().scheduleSyncDelayedTask(Saga.plugin(), new Runnable() {
-			@SuppressWarnings("deprecation")
-			@Override
-			public void run() {
-				
-				// Tool damage reduction:
-				if(sagaAttacker instanceof SagaPlayer){
-					Player player = ((SagaPlayer)sagaAttacker).getPlayer();
-					ItemStack item = player.getItemInHand();
-					int damage = item.getDurability() - undurability;
-					damage = TwoPointFunction.randomRound(sloppiness * damage).shortValue();
-					int pundurability = item.getDurability();
-					item.setDurability((short) (undurability + damage));
-					if(item.getDurability() != pundurability) player.updateInventory();
-				}
-				
-			}
-		}, 1);
+		// Reduce tool damage next tick:
+		if(sagaAttacker instanceof SagaPlayer){
+			Player player = ((SagaPlayer)sagaAttacker).getPlayer();
+			if(player != null) ToolWearQueue.add(player, player.getItemInHand(), sloppiness);
+		}
 		
 		
 	}
@@ -2,11 +2,9 @@ package org.saga.listeners.events;
 
 import java.util.ArrayList;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
-import org.bukkit.entity.Player;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.inventory.ItemStack;
 import org.saga.Saga;
@@ -20,7 +18,6 @@ import org.saga.player.SagaLiving;
 import org.saga.player.SagaPlayer;
 import org.saga.settlements.SagaChunk;
 import org.saga.statistics.StatisticsManager;
-import org.saga.utility.TwoPointFunction;
 
 public class SagaLootEvent {
 
@@ -136,9 +133,6 @@ public class SagaLootEvent {
 		ItemStack item = event.getPlayer().getItemInHand();
 		ArrayList<ItemStack> drops = new ArrayList<ItemStack>(event.getBlock().getDrops(item));
 
-		// Reduce tool damage:
-		final int undurability = item.getDurability();
-		
 		// Natural break:
 		if(isNatural){
 
@@ -177,23 +171,8 @@ public class SagaLootEvent {
 			
 		}
 		
-		// Schedule for next tick:
-		Bukkit.getServer().getScheduler().scheduleSyncDelayedTask(Saga.plugin(), new Runnable() {
-			@SuppressWarnings("deprecation")
-			@Override
-			public void run() {
-				
-				// Tool damage reduction:
-				Player player = event.getPlayer();
-				ItemStack item = player.getItemInHand();
-				int damage = item.getDurability() - undurability;
-				damage = TwoPointFunction.randomRound(sloppiness * damage).shortValue();
-				int pundurability = item.getDurability();
-				item.setDurability((short) (undurability + damage));
-				if(item.getDurability() != pundurability) player.updateInventory();
-				
-			}
-		}, 1);
+		// Reduce tool damage next tick:
+		ToolWearQueue.add(event.getPlayer(), item, sloppiness);
 		
 		
 		
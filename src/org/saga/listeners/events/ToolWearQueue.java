@@ -0,0 +1,163 @@
+package org.saga.listeners.events;
+
+import java.util.HashMap;
+import java.util.Map.Entry;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.saga.Saga;
+import org.saga.utility.TwoPointFunction;
+
+/**
+ * Corrects tool durability on the tick after damage and loot events.
+ * Hits by the same player in one tick are folded into a single correction.
+ *
+ */
+public class ToolWearQueue implements Runnable {
+
+
+	/**
+	 * Instance.
+	 */
+	private static ToolWearQueue instance = new ToolWearQueue();
+
+
+	/**
+	 * Pending corrections.
+	 */
+	private final HashMap<Player, Wear> pending = new HashMap<Player, Wear>();
+
+	/**
+	 * True if the correction task is scheduled.
+	 */
+	private boolean scheduled = false;
+
+
+
+	// Queuing:
+	/**
+	 * Queues a tool durability correction for the next tick.
+	 * If a correction is already queued for the player, the first durability is kept.
+	 *
+	 * @param player player
+	 * @param item item in hand before the hit
+	 * @param sloppiness sloppiness multiplier
+	 */
+	public static void add(Player player, ItemStack item, double sloppiness) {
+
+
+		if(item == null) return;
+
+		ToolWearQueue queue = instance;
+
+		// Fold:
+		if(queue.pending.containsKey(player)) return;
+
+		queue.pending.put(player, new Wear(item.getType(), item.getDurability(), sloppiness));
+
+		// Schedule:
+		if(!queue.scheduled){
+			queue.scheduled = Bukkit.getServer().getScheduler().scheduleSyncDelayedTask(Saga.plugin(), queue, 1) != -1;
+			if(!queue.scheduled) queue.run();
+		}
+
+
+	}
+
+
+
+	// Correcting:
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Runnable#run()
+	 */
+	@SuppressWarnings("deprecation")
+	@Override
+	public void run() {
+
+
+		scheduled = false;
+
+		for (Entry<Player, Wear> entry : pending.entrySet()) {
+
+			Player player = entry.getKey();
+			Wear wear = entry.getValue();
+
+			if(!player.isOnline()) continue;
+
+			// Tool changed:
+			ItemStack item = player.getItemInHand();
+			if(item == null || item.getType() != wear.type) continue;
+
+			// Tool damage reduction:
+			int damage = item.getDurability() - wear.undurability;
+			damage = TwoPointFunction.randomRound(wear.sloppiness * damage).shortValue();
+			int pundurability = item.getDurability();
+			item.setDurability((short) (wear.undurability + damage));
+			if(item.getDurability() != pundurability) player.updateInventory();
+
+		}
+
+		pending.clear();
+
+
+	}
+
+
+
+	// Load unload:
+	/**
+	 * Applies pending corrections and resets the queue.
+	 *
+	 */
+	public static void unload() {
+
+		instance.run();
+		instance = new ToolWearQueue();
+
+	}
+
+
+
+	// Types:
+	/**
+	 * Tool state before the first hit in a tick.
+	 *
+	 */
+	private static class Wear {
+
+		/**
+		 * Tool material.
+		 */
+		private final Material type;
+
+		/**
+		 * Durability before the hit.
+		 */
+		private final short undurability;
+
+		/**
+		 * Sloppiness multiplier.
+		 */
+		private final double sloppiness;
+
+		/**
+		 * Sets the tool state.
+		 *
+		 * @param type tool material
+		 * @param undurability durability before the hit
+		 * @param sloppiness sloppiness multiplier
+		 */
+		private Wear(Material type, short undurability, double sloppiness) {
+			this.type = type;
+			this.undurability = undurability;
+			this.sloppiness = sloppiness;
+		}
+
+	}
+
+
+}
@@ -64,6 +64,17 @@ public class GeneralMessages {
 		return Colour.negative + "Faction " + factionName + " doesn't exist.";
 	}
 	
+	
+	
+	// Jobs:
+	public static String jobProgress(String name, Integer done, Integer total) {
+		return Colour.normal1 + "Job " + name + ": " + done + "/" + total + ".";
+	}
+	
+	public static String jobFailed(String name) {
+		return Colour.negative + "Job " + name + " failed.";
+	}
+	
 
 	
 	// Material:
@@ -181,7 +181,7 @@ public class StatisticsMessages {
 			for (String subCateg : subCategs) {
 				
 				String name = StatisticsManager.formatCategName(subCateg);
-				String value = ChatUtil.round(StatisticsManager.manager().getSumValue(category + "." + subCateg, ignoreBottom), decimals);
+				String value = ChatUtil.round(StatisticsManager.manager().getSumValue(category + "." + subCateg), decimals);
 				
 				table.addLine(name, value, 0);
 				
@@ -220,8 +220,8 @@ public class StatisticsMessages {
 				String name = StatisticsManager.formatCategName(subCateg);
 				String sumCategory = category + "." + subCateg;
 				String sumCategory2 = sumCategory.replace(varCategMain, varCateg1);
-				String value1 = ChatUtil.round(StatisticsManager.manager().getSumValue(sumCategory, ignoreBottom), decimals);
-				String value2 = ChatUtil.round(StatisticsManager.manager().getSumValue(sumCategory2, ignoreBottom), decimals);
+				String value1 = ChatUtil.round(StatisticsManager.manager().getSumValue(sumCategory), decimals);
+				String value2 = ChatUtil.round(StatisticsManager.manager().getSumValue(sumCategory2), decimals);
 				
 				table.addLine(new String[]{name, value1, value2});
 				
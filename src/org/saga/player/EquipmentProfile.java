@@ -0,0 +1,178 @@
+package org.saga.player;
+
+import org.bukkit.craftbukkit.v1_6_R1.entity.CraftPlayer;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.saga.config.VanillaConfiguration;
+
+/**
+ * Armour reduction and enchantment protection for worn armour.
+ * Calculated again only when the armour slots hold different items.
+ *
+ */
+public class EquipmentProfile {
+
+
+	/**
+	 * Armour items the profile was calculated for.
+	 */
+	private final Object[] fingerprint = new Object[4];
+
+	/**
+	 * True if the profile was calculated.
+	 */
+	private boolean calculated = false;
+
+
+	/**
+	 * Armour reduction.
+	 */
+	private double reduction = 0.0;
+
+	/**
+	 * Protection EPF.
+	 */
+	private int protectionEPF = 0;
+
+	/**
+	 * Fire protection EPF.
+	 */
+	private int fireEPF = 0;
+
+	/**
+	 * Explosion protection EPF.
+	 */
+	private int explosionEPF = 0;
+
+	/**
+	 * Projectile protection EPF.
+	 */
+	private int projectileEPF = 0;
+
+	/**
+	 * Fall protection EPF.
+	 */
+	private int fallEPF = 0;
+
+
+
+	// Updating:
+	/**
+	 * Checks the armour slots and calculates the profile if they changed.
+	 * Items are compared by identity, which stays the same while durability changes.
+	 *
+	 * @param player player
+	 */
+	public void update(Player player) {
+
+
+		Object[] armour = ((CraftPlayer) player).getHandle().inventory.armor;
+
+		// Same items:
+		if(calculated){
+
+			boolean same = true;
+			for (int i = 0; i < fingerprint.length; i++) {
+				if(armour[i] != fingerprint[i]){
+					same = false;
+					break;
+				}
+			}
+
+			if(same) return;
+
+		}
+
+		for (int i = 0; i < fingerprint.length; i++) {
+			fingerprint[i] = armour[i];
+		}
+
+		calculate(player.getInventory());
+
+
+	}
+
+	/**
+	 * Calculates the profile.
+	 *
+	 * @param inventory player inventory
+	 */
+	public void calculate(PlayerInventory inventory) {
+
+
+		ItemStack[] armour = new ItemStack[]{inventory.getHelmet(), inventory.getChestplate(), inventory.getLeggings(), inventory.getBoots()};
+
+		reduction = VanillaConfiguration.getArmourReduction(armour[0], armour[1], armour[2], armour[3]);
+
+		protectionEPF = VanillaConfiguration.getEPF(armour, Enchantment.PROTECTION_ENVIRONMENTAL);
+		fireEPF = VanillaConfiguration.getEPF(armour, Enchantment.PROTECTION_FIRE);
+		explosionEPF = VanillaConfiguration.getEPF(armour, Enchantment.PROTECTION_EXPLOSIONS);
+		projectileEPF = VanillaConfiguration.getEPF(armour, Enchantment.PROTECTION_PROJECTILE);
+		fallEPF = 2 * VanillaConfiguration.getEPF(armour, Enchantment.PROTECTION_FALL);
+
+		calculated = true;
+
+
+	}
+
+	/**
+	 * Forces the profile to be calculated on next update.
+	 *
+	 */
+	public void invalidate() {
+		calculated = false;
+	}
+
+
+
+	// Getters:
+	/**
+	 * Gets the armour reduction.
+	 *
+	 * @return armour reduction
+	 */
+	public double getReduction() {
+		return reduction;
+	}
+
+	/**
+	 * Gets the total EPF for the damage cause.
+	 *
+	 * @param cause damage cause
+	 * @return total EPF, 0 if the cause isn't protected against
+	 */
+	public int getEPF(DamageCause cause) {
+
+
+		switch (cause) {
+
+			case ENTITY_ATTACK:
+				return protectionEPF;
+
+			case FIRE:
+			case LAVA:
+				return fireEPF + protectionEPF;
+
+			case BLOCK_EXPLOSION:
+			case ENTITY_EXPLOSION:
+				return explosionEPF + protectionEPF;
+
+			case PROJECTILE:
+				return projectileEPF + protectionEPF;
+
+			case FALL:
+				return fallEPF + protectionEPF;
+
+			default:
+				return 0;
+
+		}
+
+
+	}
+
+
+}
@@ -344,6 +344,7 @@ public class GuardianRune {
 			
 			// Clear:
 			rune.clear();
+			sagaPlayer.markDirty();
 			
 			// Statistics:
 			StatisticsManager.manager().addGuardRuneRestore(sagaPlayer);
@@ -403,6 +404,7 @@ public class GuardianRune {
 		
 		// Discharge:
 		rune.discharge();
+		sagaDead.markDirty();
 	
 		return true;
 		
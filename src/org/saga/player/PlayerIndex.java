@@ -0,0 +1,585 @@
+package org.saga.player;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.bukkit.craftbukkit.libs.com.google.gson.JsonParseException;
+import org.saga.JobRunner;
+import org.saga.JobRunner.Job;
+import org.saga.Saga;
+import org.saga.SagaLogger;
+import org.saga.saveload.Directory;
+import org.saga.saveload.WriterReader;
+
+/**
+ * Summaries of all players, so offline players can be looked up without reading their files.
+ * Summaries are updated every time a player is saved.
+ *
+ */
+public class PlayerIndex {
+
+
+	/**
+	 * Instance of the index.
+	 */
+	transient private static PlayerIndex instance;
+
+	/**
+	 * Gets the index.
+	 *
+	 * @return index, null if not loaded
+	 */
+	public static PlayerIndex index() {
+		return instance;
+	}
+
+
+	/**
+	 * Summaries, keyed by lower case name.
+	 */
+	private Hashtable<String, PlayerSummary> summaries;
+
+	/**
+	 * True if the index has changed since the last save.
+	 */
+	transient private boolean dirty = false;
+
+
+
+	// Initialisation:
+	/**
+	 * Initialises.
+	 *
+	 * @param str nothing
+	 */
+	public PlayerIndex(String str) {
+
+		summaries = new Hashtable<String, PlayerSummary>();
+
+	}
+
+	/**
+	 * Goes trough all the fields and makes sure everything has been set after gson load.
+	 * If not, it fills the field with defaults.
+	 *
+	 * @return true if everything was correct.
+	 */
+	public boolean complete() {
+
+
+		boolean integrity = true;
+
+		if(summaries == null){
+			SagaLogger.nullField(getClass(), "summaries");
+			summaries = new Hashtable<String, PlayerSummary>();
+			integrity = false;
+		}
+
+		Collection<PlayerSummary> all = summaries.values();
+		for (PlayerSummary summary : all) {
+			if(!summary.complete()) integrity = false;
+		}
+
+		return integrity;
+
+
+	}
+
+
+
+	// Summaries:
+	/**
+	 * Updates the summary for a player.
+	 *
+	 * @param sagaPlayer saga player
+	 */
+	public void update(SagaPlayer sagaPlayer) {
+
+		PlayerSummary summary = new PlayerSummary(sagaPlayer, System.currentTimeMillis());
+		summary.resolveFactionId();
+
+		summaries.put(summary.getName().toLowerCase(), summary);
+		dirty = true;
+
+	}
+
+	/**
+	 * Gets a player summary.
+	 *
+	 * @param name player name
+	 * @return summary, null if none
+	 */
+	public PlayerSummary getSummary(String name) {
+		return summaries.get(name.toLowerCase());
+	}
+
+	/**
+	 * Checks if the index has a summary for the player.
+	 *
+	 * @param name player name
+	 * @return true if the player has a summary
+	 */
+	public boolean contains(String name) {
+		return summaries.containsKey(name.toLowerCase());
+	}
+
+	/**
+	 * Gets all player summaries.
+	 *
+	 * @return all summaries
+	 */
+	public ArrayList<PlayerSummary> getSummaries() {
+		return new ArrayList<PlayerSummary>(summaries.values());
+	}
+
+	/**
+	 * Rebuilds the index from player files as a background job.
+	 * Player files are read on a worker thread. Summaries are added on the main thread,
+	 * where faction IDs are resolved, unless the player was saved during the rebuild. Lookups fall back to player files until the job finishes.
+	 *
+	 */
+	public void rebuild() {
+
+
+		SagaLogger.info("Rebuilding player index.");
+
+		JobRunner.runner().submit(new Job(null, "rebuild player index") {
+
+			private ArrayList<String> names = new ArrayList<String>();
+
+			private ArrayList<PlayerSummary> read = new ArrayList<PlayerSummary>();
+
+			private int next = 0;
+
+			private int added = 0;
+
+			@Override
+			protected void work() {
+
+				String[] files = WriterReader.getFileNames(Directory.PLAYER_DATA);
+				for (int i = 0; i < files.length; i++) {
+
+					if(!files[i].endsWith(Directory.FILE_EXTENTENSION)) continue;
+					String name = files[i].replace(Directory.FILE_EXTENTENSION, "");
+
+					// Summary from file fields, null if the file needs a full load:
+					PlayerSummary summary = null;
+					try {
+						SagaPlayer sagaPlayer = WriterReader.read(Directory.PLAYER_DATA, name, SagaPlayer.class);
+						summary = new PlayerSummary(sagaPlayer, WriterReader.getLastModified(Directory.PLAYER_DATA, name));
+						summary.complete();
+					}
+					catch (IOException e) {
+						SagaLogger.severe(PlayerIndex.class, "failed to read " + name + " player file: " + e.getMessage());
+					}
+					catch (JsonParseException e) {
+						SagaLogger.severe(PlayerIndex.class, "failed to parse " + name + " player file: " + e.getMessage());
+					}
+
+					names.add(name);
+					read.add(summary);
+
+				}
+
+			}
+
+			@Override
+			protected boolean step() {
+
+				if(next >= names.size()) return false;
+				String name = names.get(next);
+				PlayerSummary summary = read.get(next);
+				next++;
+
+				// Saved during rebuild:
+				if(contains(name)) return true;
+
+				// Loaded players and files that failed to read:
+				SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(name);
+				if(sagaPlayer != null) summary = new PlayerSummary(sagaPlayer, System.currentTimeMillis());
+				else if(summary == null) summary = new PlayerSummary(SagaPlayer.load(name), WriterReader.getLastModified(Directory.PLAYER_DATA, name));
+
+				summary.resolveFactionId();
+
+				summaries.put(summary.getName().toLowerCase(), summary);
+				dirty = true;
+				added++;
+
+				return true;
+
+			}
+
+			@Override
+			protected int getTotal() {
+				return names.size();
+			}
+
+			@Override
+			protected void finish() {
+				SagaLogger.info("Indexed " + added + " players.");
+			}
+
+		});
+
+
+	}
+
+
+
+	// Load unload:
+	/**
+	 * Loads the index. Rebuilds it if there is no index file.
+	 *
+	 * @return index
+	 */
+	public static PlayerIndex load(){
+
+
+		// Inform:
+		SagaLogger.info("Loading player index.");
+
+		// New:
+		if(!WriterReader.checkExists(Directory.PLAYER_INDEX)){
+
+			instance = new PlayerIndex("");
+			instance.rebuild();
+
+		}
+
+		// Load:
+		else{
+
+			try {
+
+				instance = WriterReader.read(Directory.PLAYER_INDEX, PlayerIndex.class);
+
+			} catch (FileNotFoundException e) {
+
+				instance = new PlayerIndex("");
+				instance.rebuild();
+
+			} catch (IOException e) {
+
+				SagaLogger.severe(PlayerIndex.class, "failed to load");
+				instance = new PlayerIndex("");
+				instance.rebuild();
+
+			} catch (JsonParseException e) {
+
+				SagaLogger.severe(PlayerIndex.class, "failed to parse");
+				SagaLogger.info("Parse message :" + e.getMessage());
+				instance = new PlayerIndex("");
+				instance.rebuild();
+
+			}
+
+		}
+
+		// Complete:
+		instance.complete();
+
+		return instance;
+
+
+	}
+
+	/**
+	 * Unloads the index.
+	 *
+	 */
+	public static void unload(){
+
+
+		// Inform:
+		SagaLogger.info("Unloading player index.");
+
+		save(true);
+
+		instance = null;
+
+
+	}
+
+	/**
+	 * Saves the index if it has changed.
+	 *
+	 */
+	public static void save(){
+		save(false);
+	}
+
+	/**
+	 * Saves the index.
+	 *
+	 * @param all true if the index should be saved even if unchanged
+	 */
+	public static void save(boolean all){
+
+
+		// Unchanged:
+		if(!all && !instance.dirty){
+			SagaLogger.info("Skipping unchanged player index.");
+			return;
+		}
+
+		// Inform:
+		SagaLogger.info("Saving player index.");
+
+		try {
+
+			WriterReader.write(Directory.PLAYER_INDEX, instance);
+			instance.dirty = false;
+
+		} catch (IOException e) {
+
+			SagaLogger.severe(PlayerIndex.class, "write failed");
+			SagaLogger.info("Write failure cause:" + e.getClass().getSimpleName() + ":" + e.getMessage());
+
+		}
+
+
+	}
+
+
+
+	// Types:
+	/**
+	 * Player summary.
+	 *
+	 */
+	public static class PlayerSummary {
+
+
+		/**
+		 * Player name.
+		 */
+		private String name;
+
+		/**
+		 * Faction ID when last saved, including limited membership. -1 if none.
+		 */
+		private Integer factionId;
+
+		/**
+		 * Bundle ID, -1 if none.
+		 */
+		private Integer bundleId;
+
+		/**
+		 * Coins.
+		 */
+		private Double coins;
+
+		/**
+		 * Trained attribute scores.
+		 */
+		private Hashtable<String, Integer> attributeScores;
+
+		/**
+		 * Trained ability scores.
+		 */
+		private Hashtable<String, Integer> abilityScores;
+
+		/**
+		 * Time the player was last saved.
+		 */
+		private Long lastSeen;
+
+
+		/**
+		 * Creates a summary from player fields only, so it can be created off the main thread.
+		 * The faction ID excludes limited membership until {@link #resolveFactionId()} is called.
+		 *
+		 * @param sagaPlayer saga player
+		 * @param lastSeen time the player was last saved
+		 */
+		private PlayerSummary(SagaPlayer sagaPlayer, long lastSeen) {
+
+
+			this.name = sagaPlayer.getName();
+			this.factionId = sagaPlayer.getRawFactionId();
+			this.bundleId = sagaPlayer.getBundleId();
+			this.coins = sagaPlayer.getCoins();
+			this.lastSeen = lastSeen;
+
+			attributeScores = new Hashtable<String, Integer>();
+			for (Entry<String, Integer> entry : sagaPlayer.getRawAttributeScores().entrySet()) {
+				if(entry.getValue() > 0) attributeScores.put(entry.getKey(), entry.getValue());
+			}
+
+			abilityScores = new Hashtable<String, Integer>();
+			for (Entry<String, Integer> entry : sagaPlayer.getRawAbilityScores().entrySet()) {
+				if(entry.getValue() > 0) abilityScores.put(entry.getKey(), entry.getValue());
+			}
+
+
+		}
+
+		/**
+		 * Resolves limited membership. Main thread only.
+		 *
+		 */
+		private void resolveFactionId() {
+			factionId = SagaPlayer.getFactionId(factionId, bundleId);
+		}
+
+		/**
+		 * Fills missing fields with defaults.
+		 *
+		 * @return true if everything was correct
+		 */
+		private boolean complete() {
+
+
+			boolean integrity = true;
+
+			if(name == null){
+				SagaLogger.nullField(getClass(), "name");
+				name = "";
+				integrity = false;
+			}
+
+			if(factionId == null){
+				SagaLogger.nullField(getClass(), "factionId");
+				factionId = -1;
+				integrity = false;
+			}
+
+			if(bundleId == null){
+				SagaLogger.nullField(getClass(), "bundleId");
+				bundleId = -1;
+				integrity = false;
+			}
+
+			if(coins == null){
+				SagaLogger.nullField(getClass(), "coins");
+				coins = 0.0;
+				integrity = false;
+			}
+
+			if(attributeScores == null){
+				SagaLogger.nullField(getClass(), "attributeScores");
+				attributeScores = new Hashtable<String, Integer>();
+				integrity = false;
+			}
+
+			if(abilityScores == null){
+				SagaLogger.nullField(getClass(), "abilityScores");
+				abilityScores = new Hashtable<String, Integer>();
+				integrity = false;
+			}
+
+			if(lastSeen == null){
+				SagaLogger.nullField(getClass(), "lastSeen");
+				lastSeen = 0L;
+				integrity = false;
+			}
+
+			return integrity;
+
+
+		}
+
+
+		/**
+		 * Gets the player name.
+		 *
+		 * @return player name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Gets the faction ID.
+		 *
+		 * @return faction ID, -1 if none
+		 */
+		public Integer getFactionId() {
+			return factionId;
+		}
+
+		/**
+		 * Gets the bundle ID.
+		 *
+		 * @return bundle ID, -1 if none
+		 */
+		public Integer getBundleId() {
+			return bundleId;
+		}
+
+		/**
+		 * Gets the coins.
+		 *
+		 * @return coins
+		 */
+		public Double getCoins() {
+			return coins;
+		}
+
+		/**
+		 * Gets a trained attribute score.
+		 *
+		 * @param attrName attribute name
+		 * @return attribute score
+		 */
+		public Integer getRawAttributeScore(String attrName) {
+
+			Integer score = attributeScores.get(attrName);
+			if(score == null) return 0;
+			return score;
+
+		}
+
+		/**
+		 * Gets a trained ability score.
+		 *
+		 * @param abilName ability name
+		 * @return ability score
+		 */
+		public Integer getRawAbilityScore(String abilName) {
+
+			Integer score = abilityScores.get(abilName);
+			if(score == null) return 0;
+			return score;
+
+		}
+
+		/**
+		 * Gets all trained attribute scores.
+		 *
+		 * @return attribute scores
+		 */
+		public Map<String, Integer> getRawAttributeScores() {
+			return Collections.unmodifiableMap(attributeScores);
+		}
+
+		/**
+		 * Gets all trained ability scores.
+		 *
+		 * @return ability scores
+		 */
+		public Map<String, Integer> getRawAbilityScores() {
+			return Collections.unmodifiableMap(abilityScores);
+		}
+
+		/**
+		 * Gets the time the player was last saved.
+		 *
+		 * @return time in milliseconds
+		 */
+		public Long getLastSeen() {
+			return lastSeen;
+		}
+
+
+	}
+
+
+}
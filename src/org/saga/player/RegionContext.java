@@ -0,0 +1,126 @@
+package org.saga.player;
+
+import org.bukkit.Location;
+import org.saga.config.GeneralConfiguration;
+import org.saga.settlements.BundleManager;
+import org.saga.settlements.SagaChunk;
+
+/**
+ * Region a player is in.
+ * Resolved again only when the chunk, world or claims change.
+ *
+ */
+public class RegionContext {
+
+
+	/**
+	 * World name, null if not resolved.
+	 */
+	private String worldName = null;
+
+	/**
+	 * True if Saga is enabled in the world.
+	 */
+	private boolean worldEnabled = false;
+
+	/**
+	 * Chunk x.
+	 */
+	private int chunkX = 0;
+
+	/**
+	 * Chunk z.
+	 */
+	private int chunkZ = 0;
+
+	/**
+	 * Claim version the region was resolved with.
+	 */
+	private int claimVersion = -1;
+
+	/**
+	 * Saga chunk, null if none.
+	 */
+	private SagaChunk sagaChunk = null;
+
+
+
+	// Updating:
+	/**
+	 * Moves the region to the given location.
+	 *
+	 * @param location location
+	 * @return true if the region was resolved again
+	 */
+	public boolean moveTo(Location location) {
+
+
+		int x = location.getBlockX() >> 4;
+		int z = location.getBlockZ() >> 4;
+		int version = BundleManager.manager().getClaimVersion();
+		String world = location.getWorld().getName();
+
+		// Same region:
+		if(x == chunkX && z == chunkZ && version == claimVersion && world.equals(worldName)) return false;
+
+		// World:
+		if(!world.equals(worldName)){
+			worldName = world;
+			worldEnabled = !GeneralConfiguration.isDisabled(location.getWorld());
+		}
+
+		chunkX = x;
+		chunkZ = z;
+		claimVersion = version;
+
+		// Chunk:
+		sagaChunk = worldEnabled ? BundleManager.manager().getSagaChunk(world, x, z) : null;
+
+		return true;
+
+
+	}
+
+	/**
+	 * Forces the region to be resolved on the next move.
+	 *
+	 */
+	public void invalidate() {
+		worldName = null;
+	}
+
+
+
+	// Getters:
+	/**
+	 * Gets the Saga chunk.
+	 *
+	 * @return Saga chunk, null if none
+	 */
+	public SagaChunk getSagaChunk() {
+		return sagaChunk;
+	}
+
+	/**
+	 * Gets the Saga chunk at a location.
+	 * The resolved chunk is used if the location is in the region, otherwise the chunk is looked up.
+	 *
+	 * @param location location
+	 * @return Saga chunk, null if none
+	 */
+	public SagaChunk getSagaChunk(Location location) {
+
+
+		int x = location.getBlockX() >> 4;
+		int z = location.getBlockZ() >> 4;
+
+		// In region:
+		if(x == chunkX && z == chunkZ && claimVersion == BundleManager.manager().getClaimVersion() && location.getWorld().getName().equals(worldName)) return sagaChunk;
+
+		return BundleManager.manager().getSagaChunk(location);
+
+
+	}
+
+
+}
@@ -1,9 +1,11 @@
 package org.saga.player;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.bukkit.Effect;
@@ -16,10 +18,13 @@ import org.bukkit.entity.Arrow;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Fireball;
 import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.Vector;
-import org.saga.Saga;
+import org.saga.Clock;
 import org.saga.SagaLogger;
+import org.saga.TimerService;
+import org.saga.TimerService.TimedEntry;
 import org.saga.abilities.Ability;
 import org.saga.abilities.AbilityDefinition;
 import org.saga.abilities.AbilityManager;
@@ -94,6 +99,16 @@ public class SagaLiving {
 	 */
 	transient private boolean energyRegenFlag = false;
 	
+	/**
+	 * Energy regeneration timer.
+	 */
+	transient private TimedEntry energyRegen = null;
+	
+	/**
+	 * True if the entity has changed since the last save.
+	 */
+	transient private boolean dirty = true;
+	
 	
 	
 	// Initiate:
@@ -192,6 +207,7 @@ public class SagaLiving {
 	 * 
 	 */
 	public void update() {
+		attributeManager.invalidate();
 		abilityManager.update();
 		updateHealth();
 	}
@@ -256,6 +272,7 @@ public class SagaLiving {
 			ability = AbilityConfiguration.createAbility(abilName);
 			ability.setSagaLiving(this);
 			abilities.add(ability);
+			markDirty();
 			return ability;
 		}
 		catch (InvalidAbilityException e) {
@@ -434,6 +451,7 @@ public class SagaLiving {
 		
 		if(amount == 0) return;
 		energy+= amount;
+		markDirty();
 		
 		// Regeneration process:
 		handleEnergyRegen();
@@ -459,45 +477,63 @@ public class SagaLiving {
 		energyRegenFlag = true;
 		
 		// Schedule regeneration:
-		long delay = AbilityConfiguration.config().getEnergyRegenSeconds().longValue() * 20L;
-		Saga.plugin().getServer().getScheduler().scheduleSyncDelayedTask(Saga.plugin(), new Runnable() {
-			
+		if(energyRegen == null) energyRegen = new TimedEntry() {
 			@Override
-			public void run() {
-				
-				// Online:
-				if(wrapped == null){
-					energyRegenFlag = false; // Remove flag.
-					return;
-				}
-				
-				// Check food level:
-				if(getFoodLevel() < AbilityConfiguration.config().getEnergyMinimumFood()){
-					energyRegenFlag = false; // Remove flag.
-					return;
-				}
-				
-				// Regenerate:
-				int maxEnergy = calcMaxEnergy();
-				int energyPts = AbilityConfiguration.config().getEnergyPerFoodCost();
-				
-				modFoodLevel(-1);
-				energy+= energyPts;
-				if(energy > maxEnergy) energy = maxEnergy;
+			public int timerDue() {
 				
 				// Remove flag:
 				energyRegenFlag = false;
 				
+				regenerateEnergy();
+				
 				// Next tick:
-				if(energy <= maxEnergy) handleEnergyRegen();
+				if(energyRegenFlag) return getEnergyRegenDelay();
+				return 0;
 				
 			}
-			
-		}, delay);
+		};
+		TimerService.service().schedule(energyRegen, getEnergyRegenDelay());
+		
+		
+	}
+	
+	/**
+	 * Regenerates energy once and continues regeneration if needed.
+	 * 
+	 */
+	private void regenerateEnergy() {
+		
+		
+		// Online:
+		if(wrapped == null) return;
+		
+		// Check food level:
+		if(getFoodLevel() < AbilityConfiguration.config().getEnergyMinimumFood()) return;
+		
+		// Regenerate:
+		int maxEnergy = calcMaxEnergy();
+		int energyPts = AbilityConfiguration.config().getEnergyPerFoodCost();
+		
+		modFoodLevel(-1);
+		energy+= energyPts;
+		if(energy > maxEnergy) energy = maxEnergy;
+		markDirty();
+		
+		// Continue:
+		if(energy < AbilityConfiguration.config().getBaseEnergyPoins()) energyRegenFlag = true;
 		
 		
 	}
 	
+	/**
+	 * Gets the delay between energy regenerations.
+	 * 
+	 * @return delay in ticks
+	 */
+	private int getEnergyRegenDelay() {
+		return AbilityConfiguration.config().getEnergyRegenSeconds().intValue() * Clock.SECOND;
+	}
+	
 	
 	
 	// Food level:
@@ -537,6 +573,34 @@ public class SagaLiving {
 	
 	
 	
+	// Saving:
+	/**
+	 * Marks the entity as changed since the last save.
+	 * 
+	 */
+	public void markDirty() {
+		dirty = true;
+	}
+	
+	/**
+	 * Checks if the entity has changed since the last save.
+	 * 
+	 * @return true if changed
+	 */
+	public boolean isDirty() {
+		return dirty;
+	}
+	
+	/**
+	 * Marks the entity as saved.
+	 * 
+	 */
+	protected void clearDirty() {
+		dirty = false;
+	}
+	
+	
+	
 	// Managers:
 	/**
 	 * Gets the ability manager.
@@ -573,6 +637,18 @@ public class SagaLiving {
 
 	}
 	
+	/**
+	 * Gets all trained attribute scores.
+	 * 
+	 * @return attribute scores, empty if not set
+	 */
+	public Map<String, Integer> getRawAttributeScores() {
+
+		if(attributeScores == null) return Collections.emptyMap();
+		return Collections.unmodifiableMap(attributeScores);
+
+	}
+	
 	/**
 	 * Gets the score for the given attribute. Includes bonuses.
 	 * 
@@ -613,6 +689,7 @@ public class SagaLiving {
 	public void setAttributeScore(String attribute, Integer score) {
 		
 		this.attributeScores.put(attribute, score);
+		markDirty();
 		
 		update();
 		
@@ -671,6 +748,18 @@ public class SagaLiving {
 
 	}
 	
+	/**
+	 * Gets all trained ability scores.
+	 * 
+	 * @return ability scores, empty if not set
+	 */
+	public Map<String, Integer> getRawAbilityScores() {
+
+		if(abilityScores == null) return Collections.emptyMap();
+		return Collections.unmodifiableMap(abilityScores);
+
+	}
+	
 	/**
 	 * Gets the score for the given ability.
 	 * Includes restrictions.
@@ -701,6 +790,7 @@ public class SagaLiving {
 	public void setAblityScore(String abilName, Integer score) {
 		
 		this.abilityScores.put(abilName.toLowerCase(), score);
+		markDirty();
 		
 		syncAbilities();
 		update();
@@ -1151,5 +1241,25 @@ public class SagaLiving {
 		
 	}
 	
+	/**
+	 * Gets the damage multiplier from worn armour.
+	 * 
+	 * @param event event
+	 * @return armour multiplier
+	 */
+	public double getArmourMultiplier(EntityDamageEvent event) {
+		return VanillaConfiguration.getArmourMultiplier(event, getWrapped());
+	}
+	
+	/**
+	 * Gets the damage multiplier from armour enchantments.
+	 * 
+	 * @param event event
+	 * @return EPF multiplier
+	 */
+	public double getEPFMultiplier(EntityDamageEvent event) {
+		return VanillaConfiguration.getEPFMultiplier(event, getWrapped());
+	}
+	
 	
 }
@@ -9,6 +9,7 @@ import org.bukkit.Material;
 import org.bukkit.Sound;
 import org.bukkit.craftbukkit.libs.com.google.gson.JsonParseException;
 import org.bukkit.entity.Player;
+import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.inventory.ItemStack;
 import org.saga.Saga;
 import org.saga.SagaLogger;
@@ -18,6 +19,8 @@ import org.saga.config.AttributeConfiguration;
 import org.saga.config.EconomyConfiguration;
 import org.saga.config.ExperienceConfiguration;
 import org.saga.config.FactionConfiguration;
+import org.saga.config.VanillaConfiguration;
+import org.saga.dependencies.ChatDependency;
 import org.saga.dependencies.EconomyDependency;
 import org.saga.dependencies.PermissionsDependency;
 import org.saga.dependencies.Trader;
@@ -111,6 +114,21 @@ public class SagaPlayer extends SagaLiving implements Trader{
 	 */
 	transient private boolean savingEnabledFlag = true;
 	
+	/**
+	 * Region the player is in.
+	 */
+	transient private RegionContext region = null;
+	
+	/**
+	 * Worn armour profile.
+	 */
+	transient private EquipmentProfile equipment = null;
+	
+	/**
+	 * True if registered with faction and bundle online members.
+	 */
+	transient private boolean registered = false;
+	
 	
 	
 	// Loading and initialisation:
@@ -378,6 +396,8 @@ public class SagaPlayer extends SagaLiving implements Trader{
 		}
 		
 		lastSagaChunk = null;
+		getRegion().invalidate();
+		updateOccupancy();
 		
 		unwrap();
 		
@@ -452,6 +472,7 @@ public class SagaPlayer extends SagaLiving implements Trader{
 	public void setExp(Integer exp) {
 		
 		this.exp = exp.doubleValue();
+		markDirty();
 		
 	}
 	
@@ -507,6 +528,7 @@ public class SagaPlayer extends SagaLiving implements Trader{
 		
 		this.exp += amount;
 		if(exp > ExperienceConfiguration.config().getMaxExp()) exp = ExperienceConfiguration.config().getMaxExp().doubleValue(); 
+		markDirty();
 		
 		int aftAttributes = ExperienceConfiguration.config().getAttributePoints(exp);
 		int aftAbilities = ExperienceConfiguration.config().getAbilityPoints(exp);
@@ -608,6 +630,54 @@ public class SagaPlayer extends SagaLiving implements Trader{
 		
 	}
 	
+	/**
+	 * Gets the equipment profile, updated to the worn armour.
+	 * 
+	 * @return equipment profile, null if not online
+	 */
+	public EquipmentProfile getEquipment() {
+		
+		if(wrapped == null) return null;
+		
+		if(equipment == null) equipment = new EquipmentProfile();
+		equipment.update(getWrapped());
+		
+		return equipment;
+		
+	}
+	
+	/* 
+	 * Armour multiplier from the equipment profile.
+	 * 
+	 * @see org.saga.player.SagaLiving#getArmourMultiplier(org.bukkit.event.entity.EntityDamageEvent)
+	 */
+	@Override
+	public double getArmourMultiplier(EntityDamageEvent event) {
+		
+		EquipmentProfile equipment = getEquipment();
+		if(equipment == null) return 1.0;
+		
+		if(!VanillaConfiguration.checkArmourEffective(event.getCause())) return 1.0;
+		
+		return 1 - equipment.getReduction();
+		
+	}
+	
+	/* 
+	 * EPF multiplier from the equipment profile.
+	 * 
+	 * @see org.saga.player.SagaLiving#getEPFMultiplier(org.bukkit.event.entity.EntityDamageEvent)
+	 */
+	@Override
+	public double getEPFMultiplier(EntityDamageEvent event) {
+		
+		EquipmentProfile equipment = getEquipment();
+		if(equipment == null) return 1.0;
+		
+		return VanillaConfiguration.getEPFMultiplier(equipment.getEPF(VanillaConfiguration.getEPFCause(event)));
+		
+	}
+	
 	
 	// Faction:
 	/**
@@ -616,11 +686,22 @@ public class SagaPlayer extends SagaLiving implements Trader{
 	 * @return factions ID, -1 if none
 	 */
 	public Integer getFactionId() {
+		return getFactionId(factionId, chunkGroupId);
+	}
+	
+	/**
+	 * Gets the faction id. Undecided bundle members take the faction owning the bundle.
+	 * 
+	 * @param factionId faction ID the player joined, -1 if none
+	 * @param bundleId bundle ID, -1 if none
+	 * @return factions ID, -1 if none
+	 */
+	public static Integer getFactionId(Integer factionId, Integer bundleId) {
 		
 		// Undecided members:
-		if(factionId == -1 && chunkGroupId != -1 && FactionConfiguration.config().isLimitedMembershipEnabled()){
+		if(factionId == -1 && bundleId != -1 && FactionConfiguration.config().isLimitedMembershipEnabled()){
 			
-			Integer owningID = SiegeManager.manager().getOwningFactionID(chunkGroupId);
+			Integer owningID = SiegeManager.manager().getOwningFactionID(bundleId);
 			if(owningID != null) return owningID;
 			
 		}
@@ -629,6 +710,15 @@ public class SagaPlayer extends SagaLiving implements Trader{
 		return factionId;
 		
 	}
+	
+	/**
+	 * Gets the faction id the player joined. Excludes limited membership.
+	 * 
+	 * @return factions ID, -1 if none
+	 */
+	public Integer getRawFactionId() {
+		return factionId;
+	}
 
 	/**
 	 * Sets a faction ID for the player.
@@ -636,14 +726,32 @@ public class SagaPlayer extends SagaLiving implements Trader{
 	 * @param factionId faction Id
 	 */
 	public void setFactionId(Integer factionId) {
+		
+		if(registered) unregisterFaction();
+		
 		this.factionId = factionId;
+		markDirty();
+		
+		if(registered) registerFaction();
+		updateOccupancy();
+		updateChat();
+		
 	}
 
 	/**
 	 * Removes a faction ID from the player.
 	 */
 	public void removeFactionId() {
+		
+		if(registered) unregisterFaction();
+		
 		factionId = -1;
+		markDirty();
+		
+		if(registered) registerFaction();
+		updateOccupancy();
+		updateChat();
+		
 	}
 
 	/**
@@ -669,14 +777,41 @@ public class SagaPlayer extends SagaLiving implements Trader{
 	 * @param chunkBundleId chunk group ID
 	 */
 	public void setBundleId(Integer chunkBundleId) {
+		
+		if(registered){
+			unregisterFaction();
+			unregisterBundle();
+		}
+		
 		this.chunkGroupId = chunkBundleId;
+		markDirty();
+		
+		if(registered){
+			registerFaction();
+			registerBundle();
+		}
+		updateOccupancy();
+		updateChat();
+		
 	}
 
 	/**
 	 * Removes a chunk bundle ID from the player.
 	 */
 	public void removeBundleId() {
+		
+		if(registered){
+			unregisterFaction();
+			unregisterBundle();
+		}
+		
 		this.chunkGroupId = -1;
+		markDirty();
+		
+		if(registered) registerFaction();
+		updateOccupancy();
+		updateChat();
+		
 	}
 	
 	/**
@@ -704,6 +839,116 @@ public class SagaPlayer extends SagaLiving implements Trader{
 
 	
 	
+	// Online members:
+	/**
+	 * Registers the player with faction and bundle online members and siege occupancy.
+	 * Called when the player is loaded.
+	 * 
+	 */
+	public void registerOnline() {
+		
+		registered = true;
+		registerFaction();
+		registerBundle();
+		updateOccupancy();
+		updateChat();
+		
+	}
+	
+	/**
+	 * Unregisters the player from faction and bundle online members and siege occupancy.
+	 * Called when the player is unloaded.
+	 * 
+	 */
+	public void unregisterOnline() {
+		
+		unregisterFaction();
+		unregisterBundle();
+		if(SiegeManager.manager() != null) SiegeManager.manager().removeOccupancy(this);
+		ChatDependency.removeChat(this);
+		registered = false;
+		
+	}
+	
+	/**
+	 * Updates siege occupancy after the chunk or faction changed.
+	 * 
+	 */
+	public void updateOccupancy() {
+		
+		if(!registered || SiegeManager.manager() == null) return;
+		SiegeManager.manager().updateOccupancy(this);
+		
+	}
+	
+	/**
+	 * Publishes the chat prefix after faction, bundle, rank or role changed.
+	 * 
+	 */
+	public void updateChat() {
+		
+		if(!registered) return;
+		ChatDependency.updateChat(this);
+		
+	}
+	
+	/* 
+	 * Updates chat prefix.
+	 * 
+	 * @see org.saga.player.SagaLiving#update()
+	 */
+	@Override
+	public void update() {
+		super.update();
+		updateChat();
+	}
+	
+	/**
+	 * Adds the player to faction online players.
+	 * 
+	 */
+	private void registerFaction() {
+		
+		Faction faction = getFaction();
+		if(faction != null) faction.addOnlinePlayer(this);
+		
+	}
+
+	/**
+	 * Removes the player from faction online players.
+	 * 
+	 */
+	private void unregisterFaction() {
+		
+		Faction faction = getFaction();
+		if(faction != null) faction.removeOnlinePlayer(this);
+		
+	}
+	
+	/**
+	 * Adds the player to bundle online members.
+	 * 
+	 */
+	private void registerBundle() {
+		
+		Bundle bundle = getBundle();
+		if(bundle != null) bundle.addOnlineMember(this);
+		
+	}
+	
+	/**
+	 * Removes the player from bundle online members.
+	 * 
+	 */
+	private void unregisterBundle() {
+		
+		Bundle bundle = getBundle();
+		if(bundle != null) bundle.removeOnlineMember(this);
+		
+	}
+	
+	
+	
 	// Faction invitations:
 	/**
 	 * Adds a chunk group invite.
@@ -720,6 +965,7 @@ public class SagaPlayer extends SagaLiving implements Trader{
 		
 		// Add invite:
 		factionInvites.add(factionId);
+		markDirty();
 		
 		
 	}
@@ -739,6 +985,7 @@ public class SagaPlayer extends SagaLiving implements Trader{
 
 		// Remove invite:
 		factionInvites.remove(factionId);
+		markDirty();
 		
 		
 	}
@@ -780,6 +1027,7 @@ public class SagaPlayer extends SagaLiving implements Trader{
 		
 		// Add invite:
 		bundleInvites.add(groupId);
+		markDirty();
 		
 		
 	}
@@ -799,6 +1047,7 @@ public class SagaPlayer extends SagaLiving implements Trader{
 		
 		// Remove invite:
 		bundleInvites.remove(chunkGroupId);
+		markDirty();
 		
 		
 	}
@@ -835,7 +1084,21 @@ public class SagaPlayer extends SagaLiving implements Trader{
 		}
 		
 		lastSagaChunk = BundleManager.manager().getSagaChunk(getWrapped().getLocation());
+		getRegion().invalidate();
+		updateOccupancy();
+		
+		
+	}
+	
+	/**
+	 * Gets the region the player is in.
+	 * 
+	 * @return region
+	 */
+	public RegionContext getRegion() {
 		
+		if(region == null) region = new RegionContext();
+		return region;
 		
 	}
 	
@@ -956,6 +1219,7 @@ public class SagaPlayer extends SagaLiving implements Trader{
 	// Guard rune:
 	/**
 	 * Gets the guardRune.
+	 * The player must be marked as changed after the rune is modified.
 	 * 
 	 * @return the guardRune
 	 */
@@ -974,6 +1238,7 @@ public class SagaPlayer extends SagaLiving implements Trader{
 	@Override
 	public boolean addCoins(Double amount) {
 		coins = coins + amount;
+		markDirty();
 		return true;
 	}
 	
@@ -985,6 +1250,7 @@ public class SagaPlayer extends SagaLiving implements Trader{
 	@Override
 	public boolean removeCoins(Double amount) {
 		coins = coins - amount;
+		markDirty();
 		return true;
 	}
 
@@ -1216,6 +1482,7 @@ public class SagaPlayer extends SagaLiving implements Trader{
 	
 			// Complete:
 			sagaPlayer.complete();
+			sagaPlayer.clearDirty();
 
 		
 		} catch (FileNotFoundException e) {
@@ -1264,6 +1531,8 @@ public class SagaPlayer extends SagaLiving implements Trader{
 
                 try {
                     WriterReader.write(Directory.PLAYER_DATA, getName().toLowerCase(), this);
+                    clearDirty();
+                    if(PlayerIndex.index() != null) PlayerIndex.index().update(this);
                 } catch (Throwable e) {
                     SagaLogger.severe(this, "player information save failure:" + e.getClass().getSimpleName() + ":" + e.getMessage());
                 }
@@ -1336,6 +1605,7 @@ public class SagaPlayer extends SagaLiving implements Trader{
 	public void enableAdminMode() {
 
 		adminMode = true;
+		markDirty();
 		
 	}
 	
@@ -1346,6 +1616,7 @@ public class SagaPlayer extends SagaLiving implements Trader{
 	public void disableAdminMode() {
 
 		adminMode = null;
+		markDirty();
 		
 	}
 	
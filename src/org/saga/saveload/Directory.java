@@ -26,6 +26,7 @@ public enum Directory {
 	TRADE_DEALS("plugins/Saga/economy/", WriterReader.NAME_SUBS + " deals.json"),
 
 	PLAYER_DATA("plugins/Saga/players/", WriterReader.NAME_SUBS + ".json"),
+	PLAYER_INDEX("plugins/Saga/index/", "players.json"),
 	SETTLEMENT_DATA("plugins/Saga/settlements/", WriterReader.NAME_SUBS + ".json"),
 	FACTION_DATA("plugins/Saga/factions/", WriterReader.NAME_SUBS + ".json"),
 	
@@ -0,0 +1,306 @@
+package org.saga.saveload;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+import org.bukkit.craftbukkit.libs.com.google.gson.JsonElement;
+import org.saga.SagaLogger;
+import org.saga.config.GeneralConfiguration;
+
+/**
+ * Background writer for data files.
+ * Snapshots are taken on the main thread, encoding and file IO is done on the writer thread.
+ * Repeated writes to the same file are coalesced.
+ *
+ */
+public class SaveQueue implements Runnable {
+
+
+	/**
+	 * Instance.
+	 */
+	private static SaveQueue instance;
+
+	/**
+	 * Gets the save queue.
+	 *
+	 * @return save queue, null if asynchronous saving is disabled
+	 */
+	public static SaveQueue queue() {
+		return instance;
+	}
+
+
+	/**
+	 * Lock held while a file is being written.
+	 */
+	final static Object WRITE_LOCK = new Object();
+
+
+	/**
+	 * Pending snapshots, in queuing order.
+	 */
+	private final LinkedHashMap<File, JsonElement> pending = new LinkedHashMap<File, JsonElement>();
+
+	/**
+	 * Maximum number of pending snapshots.
+	 */
+	private final int capacity;
+
+	/**
+	 * Writer thread.
+	 */
+	private Thread thread;
+
+	/**
+	 * True if the writer thread should stop once the queue is empty.
+	 */
+	private boolean stopping = false;
+
+
+
+	// Initialisation:
+	/**
+	 * Creates the queue.
+	 *
+	 * @param capacity maximum number of pending snapshots
+	 */
+	private SaveQueue(int capacity) {
+		this.capacity = capacity;
+	}
+
+
+
+	// Queuing:
+	/**
+	 * Queues a snapshot for writing.
+	 * Replaces any pending snapshot for the same file.
+	 * If the queue is full, the snapshot is written on the calling thread.
+	 *
+	 * @param file file
+	 * @param snapshot snapshot
+	 * @throws IOException when a write through fails
+	 */
+	void offer(File file, JsonElement snapshot) throws IOException {
+
+
+		synchronized (pending) {
+
+			// Coalesce:
+			if(pending.containsKey(file)){
+				pending.put(file, snapshot);
+				return;
+			}
+
+			// Queue:
+			if(pending.size() < capacity && thread.isAlive()){
+				pending.put(file, snapshot);
+				pending.notifyAll();
+				return;
+			}
+
+		}
+
+		// Write through:
+		synchronized (WRITE_LOCK) {
+			WriterReader.writeFile(file, snapshot);
+		}
+
+
+	}
+
+	/**
+	 * Gets a pending snapshot.
+	 *
+	 * @param file file
+	 * @return pending snapshot, null if none
+	 */
+	JsonElement getPending(File file) {
+
+		synchronized (pending) {
+			return pending.get(file);
+		}
+
+	}
+
+	/**
+	 * Writes the pending snapshot for the file on the calling thread.
+	 *
+	 * @param file file
+	 */
+	void flush(File file) {
+
+
+		synchronized (WRITE_LOCK) {
+
+			JsonElement snapshot;
+			synchronized (pending) {
+				snapshot = pending.remove(file);
+			}
+			if(snapshot == null) return;
+
+			write(file, snapshot);
+
+		}
+
+
+	}
+
+	/**
+	 * Gets the number of pending snapshots.
+	 *
+	 * @return pending snapshots
+	 */
+	public int getPendingCount() {
+
+		synchronized (pending) {
+			return pending.size();
+		}
+
+	}
+
+
+
+	// Writing:
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+
+
+		while(true){
+
+			// Wait for snapshots:
+			synchronized (pending) {
+
+				while(pending.isEmpty() && !stopping){
+					try {
+						pending.wait();
+					}
+					catch (InterruptedException e) {
+						stopping = true;
+					}
+				}
+
+				if(pending.isEmpty()) return;
+
+			}
+
+			// Write oldest:
+			synchronized (WRITE_LOCK) {
+
+				File file;
+				JsonElement snapshot;
+
+				synchronized (pending) {
+
+					Iterator<Entry<File, JsonElement>> iterator = pending.entrySet().iterator();
+					if(!iterator.hasNext()) continue;
+
+					Entry<File, JsonElement> next = iterator.next();
+					file = next.getKey();
+					snapshot = next.getValue();
+					iterator.remove();
+
+				}
+
+				write(file, snapshot);
+
+			}
+
+		}
+
+
+	}
+
+	/**
+	 * Writes a snapshot and logs failures.
+	 *
+	 * @param file file
+	 * @param snapshot snapshot
+	 */
+	private void write(File file, JsonElement snapshot) {
+
+		try {
+			WriterReader.writeFile(file, snapshot);
+		}
+		catch (Throwable e) {
+			SagaLogger.severe(SaveQueue.class, "write failed for " + file + ": " + e.getClass().getSimpleName() + ":" + e.getMessage());
+		}
+
+	}
+
+
+
+	// Load unload:
+	/**
+	 * Starts the writer thread if asynchronous saving is enabled.
+	 *
+	 */
+	public static void load() {
+
+
+		if(!GeneralConfiguration.config().asyncSaving) return;
+
+		// Inform:
+		SagaLogger.info("Starting save queue.");
+
+		SaveQueue queue = new SaveQueue(GeneralConfiguration.config().saveQueueCapacity);
+		queue.thread = new Thread(queue, "Saga save writer");
+		queue.thread.setDaemon(true);
+		queue.thread.start();
+
+		instance = queue;
+
+
+	}
+
+	/**
+	 * Drains the queue and stops the writer thread.
+	 *
+	 */
+	public static void unload() {
+
+
+		if(instance == null) return;
+
+		// Inform:
+		SagaLogger.info("Draining save queue: " + instance.getPendingCount() + " pending.");
+
+		synchronized (instance.pending) {
+			instance.stopping = true;
+			instance.pending.notifyAll();
+		}
+
+		try {
+			instance.thread.join();
+		}
+		catch (InterruptedException e) {
+			SagaLogger.severe(SaveQueue.class, "interrupted while draining");
+		}
+
+		// Write leftovers:
+		synchronized (WRITE_LOCK) {
+
+			synchronized (instance.pending) {
+				for (Entry<File, JsonElement> entry : instance.pending.entrySet()) {
+					instance.write(entry.getKey(), entry.getValue());
+				}
+				instance.pending.clear();
+			}
+
+		}
+
+		instance = null;
+
+
+	}
+
+
+}
@@ -2,20 +2,33 @@ package org.saga.saveload;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
 import org.bukkit.craftbukkit.libs.com.google.gson.Gson;
 import org.bukkit.craftbukkit.libs.com.google.gson.GsonBuilder;
+import org.bukkit.craftbukkit.libs.com.google.gson.JsonElement;
+import org.bukkit.craftbukkit.libs.com.google.gson.JsonObject;
+import org.bukkit.craftbukkit.libs.com.google.gson.JsonParseException;
+import org.bukkit.craftbukkit.libs.com.google.gson.stream.JsonReader;
+import org.bukkit.craftbukkit.libs.com.google.gson.stream.JsonToken;
+import org.bukkit.craftbukkit.libs.com.google.gson.stream.JsonWriter;
 import org.saga.SagaLogger;
 import org.saga.abilities.Ability;
 import org.saga.buildings.Building;
@@ -30,9 +43,48 @@ public class WriterReader {
 	 */
 	public static String NAME_SUBS = "#";
 	
+	/**
+	 * Charset used for all files.
+	 */
+	public static final Charset CHARSET = Charset.forName("UTF-8");
+	
+	/**
+	 * Extension for files that are being written.
+	 */
+	public static final String TEMP_EXTENSION = ".tmp";
+	
+	/**
+	 * Extension for the previous generation of a file.
+	 */
+	public static final String BACKUP_EXTENSION = ".bak";
+	
+	
+	/**
+	 * Gson used for writing.
+	 */
+	private static final Gson WRITE_GSON = new GsonBuilder().create();
+	
+	/**
+	 * Gson used for reading data.
+	 */
+	private static final Gson DATA_GSON = new GsonBuilder()
+		.registerTypeAdapter(Bundle.class, new SagaCustomSerializer())
+		.registerTypeAdapter(Building.class, new SagaCustomSerializer())
+		.registerTypeAdapter(BuildingSign.class, new SagaCustomSerializer())
+		.registerTypeAdapter(Ability.class, new SagaCustomSerializer())
+		.create();
+	
+	/**
+	 * Gson used for reading configuration.
+	 */
+	private static final Gson CONFIG_GSON = new GsonBuilder()
+		.registerTypeAdapterFactory(new SagaEnumSerializer())
+		.create();
+	
 	
 	/**
 	 * Writes a data file.
+	 * If the save queue is running, only a snapshot is taken and the file is written in the background.
 	 * 
 	 * @param dir directory
 	 * @param name name
@@ -42,37 +94,128 @@ public class WriterReader {
 	public static void write(Directory dir, String name, Object obj) throws IOException {
 		
 		
-		// Gson:
-		GsonBuilder gsonBuilder= new GsonBuilder();
-		Gson gson = gsonBuilder.create();
-		String objStr = gson.toJson(obj);
+		// Snapshot:
+		JsonElement snapshot = WRITE_GSON.toJsonTree(obj);
 		
-		if(objStr == null || objStr.equals("null")){
+		if(snapshot == null || snapshot.isJsonNull()){
 			SagaLogger.severe(WriterReader.class, "null data for " + obj);
 			return;
 		}
 		
+		// File:
+		File filedir = new File(dir.getDirectory() + dir.getFilename().replace(NAME_SUBS, name));
+		
+		// Queue:
+		SaveQueue queue = SaveQueue.queue();
+		if(queue != null){
+			queue.offer(filedir, snapshot);
+			return;
+		}
+		
+		// Write:
+		writeFile(filedir, snapshot);
+		
+         
+	}
+	
+	/**
+	 * Writes a snapshot to a data file.
+	 * The snapshot is written to a temporary file, which then replaces the data file.
+	 * 
+	 * @param filedir file
+	 * @param snapshot snapshot
+	 * @throws IOException when write fails
+	 */
+	static void writeFile(File filedir, JsonElement snapshot) throws IOException {
+		
+		
 		// Directory:
-		File directory = new File(dir.getDirectory());
+		File directory = filedir.getParentFile();
 		if(!directory.exists()){
 			directory.mkdirs();
 			SagaLogger.info("Creating " + directory + " directory.");
 		}
 		
-		// File:
-		File filedir = new File(dir.getDirectory() + dir.getFilename().replace(NAME_SUBS, name));
-		if(!filedir.exists()){
-			filedir.createNewFile();
-			SagaLogger.info("Creating " + filedir + " file.");
+		// Write temporary:
+		File tempFile = getTempFile(filedir);
+		FileOutputStream fout = new FileOutputStream(tempFile);
+		JsonWriter out = new JsonWriter(new BufferedWriter(new OutputStreamWriter(fout, CHARSET)));
+		try {
+			WRITE_GSON.toJson(snapshot, out);
+			out.flush();
+			fout.getFD().sync();
+		}
+		finally {
+			out.close();
 		}
-        
-		// Write:
-		BufferedWriter out = new BufferedWriter(new FileWriter(filedir));
-		out.write(objStr);
-		out.close();
 
+		// Replace:
+		replaceFile(tempFile, filedir);
+		
          
 	}
+	
+	/**
+	 * Replaces a file with a fully written temporary file.
+	 * The previous generation is kept as a backup.
+	 * 
+	 * @param tempFile temporary file
+	 * @param filedir file
+	 * @throws IOException when the replacement fails
+	 */
+	private static void replaceFile(File tempFile, File filedir) throws IOException {
+
+
+		Path target = filedir.toPath();
+		
+		// Backup:
+		if(filedir.exists()){
+			
+			Path backup = getBackupFile(filedir).toPath();
+			Files.deleteIfExists(backup);
+			
+			try {
+				Files.createLink(backup, target);
+			}
+			catch (IOException e) {
+				Files.copy(target, backup, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (UnsupportedOperationException e) {
+				Files.copy(target, backup, StandardCopyOption.REPLACE_EXISTING);
+			}
+			
+		}
+		
+		// Rename:
+		try {
+			Files.move(tempFile.toPath(), target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(tempFile.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+		}
+		
+		
+	}
+	
+	/**
+	 * Gets the temporary file used while writing.
+	 * 
+	 * @param filedir file
+	 * @return temporary file
+	 */
+	private static File getTempFile(File filedir) {
+		return new File(filedir.getPath() + TEMP_EXTENSION);
+	}
+	
+	/**
+	 * Gets the backup file for the previous generation.
+	 * 
+	 * @param filedir file
+	 * @return backup file
+	 */
+	private static File getBackupFile(File filedir) {
+		return new File(filedir.getPath() + BACKUP_EXTENSION);
+	}
 
 	/**
 	 * Reads a data file.
@@ -86,15 +229,6 @@ public class WriterReader {
 	public static <T> T read(Directory dir, String name, Class<T> type) throws IOException {
 
 		
-		// Gson:
-        GsonBuilder gsonBuilder= new GsonBuilder();
-		gsonBuilder.registerTypeAdapter(Bundle.class, new SagaCustomSerializer());
-		gsonBuilder.registerTypeAdapter(Building.class, new SagaCustomSerializer());
-		gsonBuilder.registerTypeAdapter(BuildingSign.class, new SagaCustomSerializer());
-		gsonBuilder.registerTypeAdapter(Ability.class, new SagaCustomSerializer());
-		
-		Gson gson = gsonBuilder.create();
-
 		// Directory:
 		File directory = new File(dir.getDirectory());
 		if(!directory.exists()){
@@ -104,30 +238,93 @@ public class WriterReader {
 		
 		// File:
 		File filedir = new File(dir.getDirectory() + dir.getFilename().replace(NAME_SUBS, name));
+		
+		// Pending snapshot:
+		SaveQueue queue = SaveQueue.queue();
+		if(queue != null){
+			JsonElement snapshot = queue.getPending(filedir);
+			if(snapshot != null) return DATA_GSON.fromJson(snapshot, type);
+		}
+		
 		if(!filedir.exists()){
 			filedir.createNewFile();
 			SagaLogger.info("Creating " + filedir + " file.");
 		}
 		
 		// Read:
-        int ch;
-        StringBuffer objStr = new StringBuffer("");
-        FileInputStream fin = null;
-        fin = new FileInputStream(filedir);
-        while ((ch = fin.read()) != -1){
-            objStr.append((char) ch);
-        }
-        fin.close();
+		T obj = null;
+		RuntimeException parseException = null;
+		IOException readException = null;
+		try {
+			obj = readFile(filedir, DATA_GSON, type);
+		}
+		catch (JsonParseException e) {
+			parseException = e;
+		}
+		catch (IOException e) {
+			readException = e;
+		}
+		
+		// Previous generation:
+		File backup = getBackupFile(filedir);
+		if(obj == null && backup.exists()){
+			
+			SagaLogger.severe(WriterReader.class, "corrupt or empty " + filedir + " file, reading " + backup);
+			
+			try {
+				obj = readFile(backup, DATA_GSON, type);
+			}
+			catch (JsonParseException e) {
+				SagaLogger.severe(WriterReader.class, "failed to parse " + backup + ": " + e.getMessage());
+			}
+			catch (IOException e) {
+				SagaLogger.severe(WriterReader.class, "failed to read " + backup + ": " + e.getMessage());
+			}
+			
+		}
+		
+		if(obj == null && parseException != null) throw parseException;
+		if(obj == null && readException != null) throw readException;
 
-        // Fix null and empty:
-        if(objStr.length() == 0 || objStr.toString().equals("null")){
-        	SagaLogger.severe(WriterReader.class, "null or empty data for " + dir);
-        	objStr = new StringBuffer("{ }");
-        }
-          
-        return gson.fromJson(objStr.toString(), type);
+		// Fix null and empty:
+		if(obj == null){
+			SagaLogger.severe(WriterReader.class, "null or empty data for " + dir);
+			obj = DATA_GSON.fromJson(new JsonObject(), type);
+		}
+		
+		return obj;
 
          
+	}
+	
+	/**
+	 * Reads a file.
+	 * 
+	 * @param filedir file
+	 * @param gson gson
+	 * @param type object type
+	 * @return object, null if the file is empty or contains null
+	 * @throws IOException when read fails
+	 */
+	private static <T> T readFile(File filedir, Gson gson, Class<T> type) throws IOException {
+
+		
+		// Empty:
+		if(filedir.length() == 0) return null;
+		
+		// Read:
+		JsonReader in = new JsonReader(new BufferedReader(new InputStreamReader(new FileInputStream(filedir), CHARSET)));
+		try {
+			
+			if(in.peek() == JsonToken.NULL) return null;
+			return gson.fromJson(in, type);
+			
+		}
+		finally {
+			in.close();
+		}
+		
+		
 	}
 	
 
@@ -168,12 +365,6 @@ public class WriterReader {
 	public static <T> T readConfig(Directory dir, Class<T> type) throws IOException {
 
 		
-		// Gson:
-        GsonBuilder gsonBuilder= new GsonBuilder();
-		gsonBuilder.registerTypeAdapterFactory(new SagaEnumSerializer());
-		
-		Gson gson = gsonBuilder.create();
-
 		// Directory:
 		File directory = new File(dir.getDirectory());
 		if(!directory.exists()){
@@ -189,22 +380,15 @@ public class WriterReader {
 		}
 		
 		// Read:
-        int ch;
-        StringBuffer objStr = new StringBuffer("");
-        FileInputStream fin = null;
-        fin = new FileInputStream(filedir);
-        while ((ch = fin.read()) != -1){
-            objStr.append((char) ch);
-        }
-        fin.close();
+		T obj = readFile(filedir, CONFIG_GSON, type);
 
-        // Fix null and empty:
-        if(objStr.length() == 0 || objStr.toString().equals("null")){
-        	SagaLogger.severe(WriterReader.class, "null or empty config for " + dir);
-        	objStr = new StringBuffer("{ }");
-        }
-          
-        return gson.fromJson(objStr.toString(), type);
+		// Fix null and empty:
+		if(obj == null){
+			SagaLogger.severe(WriterReader.class, "null or empty config for " + dir);
+			obj = CONFIG_GSON.fromJson(new JsonObject(), type);
+		}
+		
+		return obj;
 
          
 	}
@@ -220,7 +404,27 @@ public class WriterReader {
 	 * @return true if exists
 	 */
 	public static boolean checkExists(Directory dir, String name){
-		return new File(dir.getDirectory() + dir.getFilename().replace(NAME_SUBS, name)).exists();
+		
+		File file = new File(dir.getDirectory() + dir.getFilename().replace(NAME_SUBS, name));
+		
+		SaveQueue queue = SaveQueue.queue();
+		if(queue != null && queue.getPending(file) != null) return true;
+		
+		return file.exists();
+		
+	}
+	
+	/**
+	 * Gets the time the file was last modified.
+	 * 
+	 * @param dir file directory
+	 * @param name file name
+	 * @return time in milliseconds, 0 if the file doesn't exist
+	 */
+	public static long getLastModified(Directory dir, String name){
+		
+		return new File(dir.getDirectory() + dir.getFilename().replace(NAME_SUBS, name)).lastModified();
+		
 	}
 	
 	/**
@@ -291,6 +495,9 @@ public class WriterReader {
 		File newFile = new File(dir.getDeletedDirectory() + dir.getFilename().replace(NAME_SUBS, name));
 		File oldFile = new File(dir.getDirectory() + dir.getFilename().replace(NAME_SUBS, name));
 
+		// Write pending:
+		SaveQueue queue = SaveQueue.queue();
+		if(queue != null) queue.flush(oldFile);
 		
 		if(!newDir.exists()){
 			newDir.mkdirs();
@@ -320,6 +527,12 @@ public class WriterReader {
 		// Move file to deleted folder:
 		boolean success = oldFile.renameTo(newFile);
 		
+		// Remove previous generation:
+		File backup = getBackupFile(oldFile);
+		if(success && backup.exists() && !backup.delete()){
+			SagaLogger.warning(WriterReader.class, "failed to remove " + backup);
+		}
+		
 		// Notify on failure:
 		if(success){
 			SagaLogger.info("Moved " + oldFile.getName() + " file to " + newDir + ".");
@@ -436,15 +649,22 @@ public class WriterReader {
 		
 		// File:
 		File filedir = new File(dir.getDirectory() + dir.getFilename().replace(NAME_SUBS, name));
-		if(!filedir.exists()){
-			filedir.createNewFile();
-			SagaLogger.info("Creating " + filedir + " file.");
-		}
         
-		// Write:
-		BufferedWriter out = new BufferedWriter(new FileWriter(filedir));
-		out.write(str);
-		out.close();
+		// Write temporary:
+		File tempFile = getTempFile(filedir);
+		FileOutputStream fout = new FileOutputStream(tempFile);
+		BufferedWriter out = new BufferedWriter(new OutputStreamWriter(fout, CHARSET));
+		try {
+			out.write(str);
+			out.flush();
+			fout.getFD().sync();
+		}
+		finally {
+			out.close();
+		}
+		
+		// Replace:
+		replaceFile(tempFile, filedir);
 
          
 	}
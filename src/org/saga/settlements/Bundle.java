@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 
 import org.bukkit.Chunk;
@@ -31,6 +32,7 @@ import org.saga.config.GeneralConfiguration;
 import org.saga.config.SettlementConfiguration;
 import org.saga.exceptions.InvalidBuildingException;
 import org.saga.exceptions.NonExistantSagaPlayerException;
+import org.saga.factions.SiegeManager;
 import org.saga.listeners.events.SagaBuildEvent;
 import org.saga.listeners.events.SagaBuildEvent.BuildOverride;
 import org.saga.listeners.events.SagaDamageEvent;
@@ -81,6 +83,26 @@ public class Bundle extends SagaCustomSerialization{
 	 */
 	transient private ArrayList<Building> buildings = null;
 	
+	/**
+	 * Buildings lists, by building class.
+	 */
+	transient private HashMap<Class<?>, ArrayList<? extends Building>> typedBuildings = null;
+	
+	/**
+	 * Member names, for lookups.
+	 */
+	transient private HashSet<String> memberIndex;
+	
+	/**
+	 * Loaded members, by name.
+	 */
+	transient private HashMap<String, SagaPlayer> onlineMembers;
+	
+	/**
+	 * Packed chunk coordinates, by world name.
+	 */
+	transient private HashMap<String, HashSet<Long>> chunkKeys;
+	
 	
 	// Control:
 	/**
@@ -93,6 +115,11 @@ public class Bundle extends SagaCustomSerialization{
 	 */
 	transient private boolean enabled = false;
 	
+	/**
+	 * True if the bundle has changed since the last save.
+	 */
+	transient private boolean dirty = true;
+	
 	
 	
 	// Options:
@@ -129,7 +156,10 @@ public class Bundle extends SagaCustomSerialization{
 		this.name = name;
 		this.id = BundleManager.manager().getUnusedId();
 		this.players = new ArrayList<String>();
+		this.memberIndex = new HashSet<String>();
+		this.onlineMembers = new HashMap<String, SagaPlayer>();
 		this.groupChunks = new ArrayList<SagaChunk>();
+		this.chunkKeys = new HashMap<String, HashSet<Long>>();
 		this.isSavingEnabled = true;
 		this.owner = "";
 		this.fireSpread = false;
@@ -165,6 +195,8 @@ public class Bundle extends SagaCustomSerialization{
 				i--;
 			}
 		}
+		memberIndex = new HashSet<String>(players);
+		onlineMembers = new HashMap<String, SagaPlayer>();
 
 		if(owner == null){
 			SagaLogger.nullField(this, "owners");
@@ -175,6 +207,7 @@ public class Bundle extends SagaCustomSerialization{
 			SagaLogger.nullField(this, "groupChunks");
 			groupChunks = new ArrayList<SagaChunk>();
 		}
+		chunkKeys = new HashMap<String, HashSet<Long>>();
 		for (int i = 0; i < groupChunks.size(); i++) {
 			
 			SagaChunk sagaChunk = groupChunks.get(i);
@@ -186,6 +219,7 @@ public class Bundle extends SagaCustomSerialization{
 				continue;
 			}
 			sagaChunk.complete(this);
+			addChunkKey(sagaChunk);
 			
 			// Building:
 			if(sagaChunk.getBuilding() != null){
@@ -290,6 +324,7 @@ public class Bundle extends SagaCustomSerialization{
 	 */
 	public void setId(Integer id) {
 		this.id = id;
+		markDirty();
 	}
 
 	/**
@@ -308,6 +343,8 @@ public class Bundle extends SagaCustomSerialization{
 	 */
 	public void setName(String name) {
 		this.name = name;
+		markDirty();
+		updateChat();
 	}
 	
 	
@@ -458,7 +495,7 @@ public class Bundle extends SagaCustomSerialization{
 
 		
 		// Check if already on the list:
-		if(groupChunks.contains(sagaChunk)){
+		if(hasChunk(sagaChunk)){
 			SagaLogger.severe(this, "tried to add an already existing " + sagaChunk + "chunk");
 			return;
 		}
@@ -468,6 +505,8 @@ public class Bundle extends SagaCustomSerialization{
 		
 		// Add:
 		groupChunks.add(sagaChunk);
+		addChunkKey(sagaChunk);
+		markDirty();
 		
 		// Update chunk group manager:
 		BundleManager.manager().addSagaChunk(sagaChunk);
@@ -488,13 +527,15 @@ public class Bundle extends SagaCustomSerialization{
 
 		
 		// Check if not in this group:
-		if(!groupChunks.contains(sagaChunk)){
+		if(!hasChunk(sagaChunk)){
 			SagaLogger.severe(this, "tried to remove a non-existing " + sagaChunk + "chunk");
 			return;
 		}
 		
 		// Remove member:
 		groupChunks.remove(sagaChunk);
+		removeChunkKey(sagaChunk);
+		markDirty();
 
 		// Update chunk group manager:
 		BundleManager.manager().removeSagaChunk(sagaChunk);
@@ -513,35 +554,58 @@ public class Bundle extends SagaCustomSerialization{
 	 */
 	public boolean isAdjacent(Chunk bukkitChunk) {
 
-		String bWorld = bukkitChunk.getWorld().getName();
+		
+		HashSet<Long> keys = chunkKeys.get(bukkitChunk.getWorld().getName());
+		if(keys == null) return false;
+		
 		int bX = bukkitChunk.getX();
 		int bZ = bukkitChunk.getZ();
 		
-		for (int i = 0; i < groupChunks.size(); i++) {
-			SagaChunk sChunk = groupChunks.get(i);
-			// World:
-			if(!sChunk.getWorldName().equals(bWorld)){
-				continue;
-			}
-			// North from saga chunk:
-			if( (sChunk.getX() == bX + 1) && (sChunk.getZ() == bZ) ){
-				return true;
-			}
-			// East from saga chunk:
-			if( (sChunk.getX() == bX) && (sChunk.getZ() == bZ + 1) ){
-				return true;
-			}
-			// South from saga chunk:
-			if( (sChunk.getX() == bX - 1) && (sChunk.getZ() == bZ) ){
-				return true;
-			}
-			// West from saga chunk:
-			if( (sChunk.getX() == bX) && (sChunk.getZ() == bZ - 1) ){
-				return true;
-			}
+		return keys.contains(ChunkIndex.pack(bX + 1, bZ)) || keys.contains(ChunkIndex.pack(bX, bZ + 1)) || keys.contains(ChunkIndex.pack(bX - 1, bZ)) || keys.contains(ChunkIndex.pack(bX, bZ - 1));
+		
+		
+	}
+	
+	/**
+	 * Checks if the bundle has the given chunk.
+	 * 
+	 * @param sagaChunk saga chunk
+	 * @return true if the bundle has the chunk
+	 */
+	public boolean hasChunk(SagaChunk sagaChunk) {
+		
+		HashSet<Long> keys = chunkKeys.get(sagaChunk.getWorldName());
+		return keys != null && keys.contains(ChunkIndex.pack(sagaChunk.getX(), sagaChunk.getZ()));
+		
+	}
+	
+	/**
+	 * Adds a chunk to the packed coordinates.
+	 * 
+	 * @param sagaChunk saga chunk
+	 */
+	private void addChunkKey(SagaChunk sagaChunk) {
+		
+		HashSet<Long> keys = chunkKeys.get(sagaChunk.getWorldName());
+		if(keys == null){
+			keys = new HashSet<Long>();
+			chunkKeys.put(sagaChunk.getWorldName(), keys);
 		}
-		return false;
+		keys.add(ChunkIndex.pack(sagaChunk.getX(), sagaChunk.getZ()));
+		
+	}
+	
+	/**
+	 * Removes a chunk from the packed coordinates.
+	 * 
+	 * @param sagaChunk saga chunk
+	 */
+	private void removeChunkKey(SagaChunk sagaChunk) {
 		
+		HashSet<Long> keys = chunkKeys.get(sagaChunk.getWorldName());
+		if(keys == null) return;
+		keys.remove(ChunkIndex.pack(sagaChunk.getX(), sagaChunk.getZ()));
+		if(keys.isEmpty()) chunkKeys.remove(sagaChunk.getWorldName());
 		
 	}
 	
@@ -578,6 +642,10 @@ public class Bundle extends SagaCustomSerialization{
 	 */
 	public void notifyBuildingChange() {
 		buildings = null;
+		typedBuildings = null;
+		markDirty();
+		BundleManager.manager().notifyClaimChange();
+		if(SiegeManager.manager() != null) SiegeManager.manager().handleBuildingChange(getId());
 	}
 	
 	
@@ -667,14 +735,21 @@ public class Bundle extends SagaCustomSerialization{
 	
 	/**
 	 * Gets all buildings instance of the given class.
+	 * The list is kept until buildings change and shouldn't be modified.
 	 * 
 	 * @param bldgClass class
 	 * @return buildings that are instances of the given class
 	 */
+	@SuppressWarnings("unchecked")
 	public <T extends Building> ArrayList<T> getBuildings(Class<T> bldgClass){
 		
+		if(typedBuildings == null) typedBuildings = new HashMap<Class<?>, ArrayList<? extends Building>>();
+		
+		ArrayList<T> buildings = (ArrayList<T>) typedBuildings.get(bldgClass);
+		if(buildings != null) return buildings;
+		
 		ArrayList<Building> allBuildings = getBuildings();
-		ArrayList<T> buildings = new ArrayList<T>();
+		buildings = new ArrayList<T>();
 		
 		for (Building building : allBuildings) {
 			
@@ -686,6 +761,8 @@ public class Bundle extends SagaCustomSerialization{
 			
 		}
 		
+		typedBuildings.put(bldgClass, buildings);
+		
 		return buildings;
 		
 	}
@@ -755,7 +832,7 @@ public class Bundle extends SagaCustomSerialization{
 	 */
 	public boolean isMember(String playerName) {
 
-		return players.contains(playerName);
+		return memberIndex.contains(playerName);
 
 	}
 	
@@ -779,6 +856,8 @@ public class Bundle extends SagaCustomSerialization{
 
 		// Add player:
 		players.add(sagaPlayer.getName());
+		memberIndex.add(sagaPlayer.getName());
+		markDirty();
 		
 		// Set bundle ID:
 		sagaPlayer.setBundleId(getId());
@@ -796,6 +875,8 @@ public class Bundle extends SagaCustomSerialization{
 		
 		// Remove member:
 		players.remove(sagaPlayer.getName());
+		memberIndex.remove(sagaPlayer.getName());
+		markDirty();
 
 		// Remove chunk group ID:
 		sagaPlayer.removeBundleId();
@@ -816,18 +897,7 @@ public class Bundle extends SagaCustomSerialization{
 	 */
 	public Collection<SagaPlayer> getOnlineMembers() {
 		
-		
-		Collection<SagaPlayer> onlinePlayers = Saga.plugin().getLoadedPlayers();
-		Collection<SagaPlayer> onlineMembers = new HashSet<SagaPlayer>();
-		
-		for (SagaPlayer onlinePlayer : onlinePlayers) {
-			
-			if(isMember(onlinePlayer.getName())) onlineMembers.add(onlinePlayer);
-			
-		}
-		
-		return onlineMembers;
-		
+		return new HashSet<SagaPlayer>(onlineMembers.values());
 		
 	}
 	
@@ -839,10 +909,47 @@ public class Bundle extends SagaCustomSerialization{
 	 */
 	public boolean isMemberOnline(String playerName) {
 		
-		return isMember(playerName) && Saga.plugin().isSagaPlayerLoaded(playerName);
+		return onlineMembers.containsKey(playerName);
 
 	}
 	
+	/**
+	 * Adds a loaded member.
+	 * Called by the player when loaded or when joining.
+	 * 
+	 * @param sagaPlayer saga player
+	 */
+	public void addOnlineMember(SagaPlayer sagaPlayer) {
+		
+		if(isMember(sagaPlayer.getName())) onlineMembers.put(sagaPlayer.getName(), sagaPlayer);
+		
+	}
+	
+	/**
+	 * Removes a loaded member.
+	 * Called by the player when unloaded or when leaving.
+	 * 
+	 * @param sagaPlayer saga player
+	 */
+	public void removeOnlineMember(SagaPlayer sagaPlayer) {
+		
+		if(onlineMembers.get(sagaPlayer.getName()) == sagaPlayer) onlineMembers.remove(sagaPlayer.getName());
+		
+	}
+	
+	/**
+	 * Publishes chat prefixes for all online members.
+	 * Called when the name or owning faction changes.
+	 * 
+	 */
+	public void updateChat() {
+		
+		for (SagaPlayer sagaPlayer : onlineMembers.values()) {
+			sagaPlayer.updateChat();
+		}
+		
+	}
+	
 	
 	/**
 	 * Matches a name to a members name.
@@ -884,6 +991,7 @@ public class Bundle extends SagaCustomSerialization{
 	 */
 	public void setOwner(String playerName) {
 		owner = playerName;
+		markDirty();
 	}
 
 	/**
@@ -893,6 +1001,7 @@ public class Bundle extends SagaCustomSerialization{
 	 */
 	public void removeOwner() {
 		owner = "";
+		markDirty();
 	}
 	
 	/**
@@ -951,6 +1060,7 @@ public class Bundle extends SagaCustomSerialization{
 	public void enableOption(BundleToggleable option) {
 
 		toggleOptions.add(option);
+		markDirty();
 
 	}
 	
@@ -962,6 +1072,7 @@ public class Bundle extends SagaCustomSerialization{
 	public void disableOption(BundleToggleable option) {
 
 		toggleOptions.remove(option);
+		markDirty();
 
 	}
 	
@@ -1351,6 +1462,23 @@ public class Bundle extends SagaCustomSerialization{
 	public boolean isSavingEnabled() {
 		return isSavingEnabled;
 	}
+	
+	/**
+	 * Marks the bundle as changed since the last save.
+	 * 
+	 */
+	public void markDirty() {
+		dirty = true;
+	}
+	
+	/**
+	 * Checks if the bundle has changed since the last save.
+	 * 
+	 * @return true if changed
+	 */
+	public boolean isDirty() {
+		return dirty;
+	}
 
 	
 	
@@ -1392,6 +1520,7 @@ public class Bundle extends SagaCustomSerialization{
 		
 		// Complete:
 		bundle.complete();
+		bundle.dirty = false;
 		
 		// Add to manager:
 		BundleManager.manager().addBundle(bundle);
@@ -1421,6 +1550,7 @@ public class Bundle extends SagaCustomSerialization{
 		
 		try {
 			WriterReader.write(Directory.SETTLEMENT_DATA, id.toString(), this);
+			dirty = false;
 		} catch (IOException e) {
 			SagaLogger.severe(this, "write failed: " + e.getClass().getSimpleName() + ":" + e.getMessage());
 		}
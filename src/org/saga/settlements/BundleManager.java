@@ -4,9 +4,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Hashtable;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.block.Block;
 import org.saga.SagaLogger;
 import org.saga.factions.SiegeManager;
 import org.saga.player.SagaPlayer;
@@ -39,9 +41,15 @@ public class BundleManager {
 	transient  Hashtable<Integer, Bundle> registeredBundles = new Hashtable<Integer, Bundle>();
 	
 	/**
-	 * All saga chunks.
+	 * All saga chunks, indexed by world name.
+	 * Only modified from the main thread.
 	 */
-	transient private Hashtable<String, Hashtable<Integer, Hashtable<Integer, SagaChunk>>> sagaChunks = new Hashtable<String, Hashtable<Integer,Hashtable<Integer,SagaChunk>>>();
+	transient private ConcurrentHashMap<String, ChunkIndex> sagaChunks = new ConcurrentHashMap<String, ChunkIndex>();
+	
+	/**
+	 * Incremented every time claims or buildings change.
+	 */
+	transient private int claimVersion = 0;
 
 	
 	// Synchronisation:
@@ -166,37 +174,54 @@ public class BundleManager {
 	// Saga chunks:
 	/**
 	 * Gets a saga chunk.
+	 * Doesn't touch the bukkit chunk.
 	 * 
 	 * @param location location
 	 * @return saga chunk. null if not found
 	 */
 	public SagaChunk getSagaChunk(Location location) {
 
-		return getSagaChunk(location.getWorld().getChunkAt(location));
+		return getSagaChunkAt(location.getWorld().getName(), location.getBlockX(), location.getBlockZ());
 		
 	}
 	
 	/**
 	 * Gets a saga chunk.
+	 * Doesn't touch the bukkit chunk.
 	 * 
-	 * @param chunk location chunk
+	 * @param block block
 	 * @return saga chunk. null if not found
 	 */
-	public SagaChunk getSagaChunk(Chunk chunk) {
+	public SagaChunk getSagaChunk(Block block) {
 
+		return getSagaChunkAt(block.getWorld().getName(), block.getX(), block.getZ());
 		
-		Hashtable<Integer, Hashtable<Integer, SagaChunk>> world = sagaChunks.get(chunk.getWorld().getName());
-		if(world == null){
-			return null;
-		}
-		
-		Hashtable<Integer, SagaChunk> x = world.get(chunk.getX());
-		if(x == null){
-			return null;
-		}
-		
-		return x.get(chunk.getZ());
+	}
+	
+	/**
+	 * Gets a saga chunk from block coordinates.
+	 * Doesn't touch the bukkit chunk.
+	 * 
+	 * @param worldName world name
+	 * @param blockX block x
+	 * @param blockZ block z
+	 * @return saga chunk. null if not found
+	 */
+	public SagaChunk getSagaChunkAt(String worldName, int blockX, int blockZ) {
+
+		return getSagaChunk(worldName, blockX >> 4, blockZ >> 4);
 		
+	}
+	
+	/**
+	 * Gets a saga chunk.
+	 * 
+	 * @param chunk location chunk
+	 * @return saga chunk. null if not found
+	 */
+	public SagaChunk getSagaChunk(Chunk chunk) {
+
+		return getSagaChunk(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
 		
 	}
 	
@@ -211,17 +236,12 @@ public class BundleManager {
 	public SagaChunk getSagaChunk(String worldName, int x, int z) {
 
 		
-		Hashtable<Integer, Hashtable<Integer, SagaChunk>> tworld = sagaChunks.get(worldName);
-		if(tworld == null){
-			return null;
-		}
-		
-		Hashtable<Integer, SagaChunk> tX = tworld.get(x);
-		if(tX == null){
+		ChunkIndex world = sagaChunks.get(worldName);
+		if(world == null){
 			return null;
 		}
 		
-		return tX.get(z);
+		return world.get(x, z);
 		
 		
 	}
@@ -258,6 +278,26 @@ public class BundleManager {
 
 	
 	
+	// Storage:
+	/**
+	 * Marks a block as changed for the building storage areas it belongs to.
+	 * Used for changes that don't go trough the building, like pistons, fluids and explosions.
+	 * 
+	 * @param block block
+	 */
+	public void invalidateStorage(Block block) {
+
+		
+		SagaChunk sagaChunk = getSagaChunk(block);
+		if(sagaChunk == null || sagaChunk.getBuilding() == null) return;
+		
+		sagaChunk.getBuilding().invalidateStorage(block);
+		
+		
+	}
+
+	
+	
 	// Updates:
 	/**
 	 * Removes a saga chunk.
@@ -267,37 +307,30 @@ public class BundleManager {
 	void removeSagaChunk(SagaChunk sagaChunk) {
 
 		
-		Hashtable<Integer, Hashtable<Integer, SagaChunk>> world = sagaChunks.get(sagaChunk.getWorldName());
+		ChunkIndex world = sagaChunks.get(sagaChunk.getWorldName());
 		
 		if(world == null){
 			SagaLogger.severe(this, "tried to remove a non-existan " + sagaChunk + " chunk to group manager chunk shortcut");
 			return;
 		}
 		
-		Hashtable<Integer, SagaChunk> x = world.get(sagaChunk.getX());
-		
-		if(x == null){
-			SagaLogger.severe(this, "tried to remove a non-existan " + sagaChunk + " chunk to group manager chunk shortcut");
-			return;
-		}
-		
-		SagaChunk z = x.get(sagaChunk.getZ());
+		// Remove:
+		SagaChunk z = world.remove(sagaChunk.getX(), sagaChunk.getZ());
 		
 		if(z == null){
 			SagaLogger.severe(this, "tried to remove a non-existan " + sagaChunk + " chunk to group manager chunk shortcut");
 			return;
 		}
 		
-		// Remove:
-		x.remove(sagaChunk.getZ());
-		
 		// Clean up:
-		if(x.isEmpty()){
-			world.remove(sagaChunk.getX());
-		}
 		if(world.isEmpty()){
 			sagaChunks.remove(sagaChunk.getWorldName());
 		}
+		
+		// Borders:
+		updateBorders(sagaChunk);
+		
+		notifyClaimChange();
 
 		
 	}
@@ -310,21 +343,14 @@ public class BundleManager {
 	void addSagaChunk(SagaChunk sagaChunk) {
 
 		
-		Hashtable<Integer, Hashtable<Integer, SagaChunk>> world = sagaChunks.get(sagaChunk.getWorldName());
+		ChunkIndex world = sagaChunks.get(sagaChunk.getWorldName());
 		
 		if(world == null){
-			world = new Hashtable<Integer, Hashtable<Integer,SagaChunk>>();
+			world = new ChunkIndex();
 			sagaChunks.put(sagaChunk.getWorldName(), world);
 		}
 		
-		Hashtable<Integer, SagaChunk> x = world.get(sagaChunk.getX());
-		
-		if(x == null){
-			x = new Hashtable<Integer, SagaChunk>();
-			world.put(sagaChunk.getX(), x);
-		}
-		
-		SagaChunk z = x.get(sagaChunk.getZ());
+		SagaChunk z = world.get(sagaChunk.getX(), sagaChunk.getZ());
 		
 		if(z != null){
 			SagaLogger.severe(getClass(), "overlap between " + z + " and " + sagaChunk + " Saga chunks");
@@ -332,11 +358,62 @@ public class BundleManager {
 		}
 		
 		// Add:
-		x.put(sagaChunk.getZ(), sagaChunk);
+		world.put(sagaChunk.getX(), sagaChunk.getZ(), sagaChunk);
+		
+		// Borders:
+		sagaChunk.updateBorder();
+		updateBorders(sagaChunk);
+		
+		notifyClaimChange();
+		
+		
+	}
+	
+	/**
+	 * Updates the borders of chunks next to a claimed or abandoned chunk.
+	 * 
+	 * @param sagaChunk saga chunk
+	 */
+	private void updateBorders(SagaChunk sagaChunk) {
+
+		
+		String world = sagaChunk.getWorldName();
+		int x = sagaChunk.getX();
+		int z = sagaChunk.getZ();
+		
+		SagaChunk adjacent = getSagaChunk(world, x + 1, z);
+		if(adjacent != null) adjacent.updateBorder();
+		
+		adjacent = getSagaChunk(world, x - 1, z);
+		if(adjacent != null) adjacent.updateBorder();
+		
+		adjacent = getSagaChunk(world, x, z + 1);
+		if(adjacent != null) adjacent.updateBorder();
+		
+		adjacent = getSagaChunk(world, x, z - 1);
+		if(adjacent != null) adjacent.updateBorder();
 		
 		
 	}
 	
+	/**
+	 * Indicates that claims or buildings changed.
+	 * Cached regions are resolved again.
+	 * 
+	 */
+	public void notifyClaimChange() {
+		claimVersion++;
+	}
+	
+	/**
+	 * Gets the claim version.
+	 * 
+	 * @return claim version, changes every time claims or buildings change
+	 */
+	public int getClaimVersion() {
+		return claimVersion;
+	}
+	
 	/**
 	 * Removes a chunk group.
 	 * 
@@ -457,21 +534,41 @@ public class BundleManager {
 	}
 	
 	/**
-	 * Saves the manager.
+	 * Saves changed bundles.
 	 * 
 	 */
 	public static void save() {
+		save(false);
+	}
+	
+	/**
+	 * Saves the manager.
+	 * 
+	 * @param all true if unchanged bundles should also be saved
+	 */
+	public static void save(boolean all) {
 
 
 		// Inform:
 		SagaLogger.info("Saving chunk groups.");
 
 		// Save:
+		int skipped = 0;
 		Collection<Bundle> elements = manager().registeredBundles.values();
 		for (Bundle element : elements) {
+			
+			if(!all && !element.isDirty()){
+				skipped++;
+				continue;
+			}
+			
 			element.save();
+			
 		}
 		
+		// Inform:
+		if(skipped > 0) SagaLogger.info("Skipped " + skipped + " unchanged chunk groups.");
+		
 		
 	}
 	
@@ -485,7 +582,7 @@ public class BundleManager {
 		// Inform:
 		SagaLogger.info("Unloading chunk groups.");
 		
-		save();
+		save(true);
 		instance = null;
 		
 		
@@ -0,0 +1,255 @@
+package org.saga.settlements;
+
+/**
+ * Saga chunks for a single world, keyed by packed chunk coordinates.
+ * Open addressing with linear probing, so lookups don't box.
+ * Access is synchronized, because asynchronous listeners and job workers may read it.
+ *
+ */
+public class ChunkIndex {
+
+
+	/**
+	 * Initial capacity, power of two.
+	 */
+	private final static int INITIAL_CAPACITY = 64;
+
+
+	/**
+	 * Packed coordinates.
+	 */
+	private long[] keys;
+
+	/**
+	 * Saga chunks, null for a free slot.
+	 */
+	private SagaChunk[] values;
+
+	/**
+	 * Index mask.
+	 */
+	private int mask;
+
+	/**
+	 * Number of saga chunks.
+	 */
+	private int size = 0;
+
+
+
+	// Initialisation:
+	/**
+	 * Creates an empty index.
+	 *
+	 */
+	public ChunkIndex() {
+
+		keys = new long[INITIAL_CAPACITY];
+		values = new SagaChunk[INITIAL_CAPACITY];
+		mask = INITIAL_CAPACITY - 1;
+
+	}
+
+
+
+	// Keys:
+	/**
+	 * Packs chunk coordinates.
+	 *
+	 * @param x chunk x
+	 * @param z chunk z
+	 * @return packed coordinates
+	 */
+	public static long pack(int x, int z) {
+		return ((long)x << 32) | (z & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Unpacks chunk x.
+	 *
+	 * @param key packed coordinates
+	 * @return chunk x
+	 */
+	public static int unpackX(long key) {
+		return (int)(key >> 32);
+	}
+
+	/**
+	 * Unpacks chunk z.
+	 *
+	 * @param key packed coordinates
+	 * @return chunk z
+	 */
+	public static int unpackZ(long key) {
+		return (int)key;
+	}
+
+	/**
+	 * Finds the home slot for a key.
+	 *
+	 * @param key packed coordinates
+	 * @return slot index
+	 */
+	private int slot(long key) {
+
+		key^= key >>> 33;
+		key*= 0xFF51AFD7ED558CCDL;
+		key^= key >>> 33;
+		return (int)key & mask;
+
+	}
+
+
+
+	// Access:
+	/**
+	 * Gets a saga chunk.
+	 *
+	 * @param x chunk x
+	 * @param z chunk z
+	 * @return saga chunk, null if none
+	 */
+	public synchronized SagaChunk get(int x, int z) {
+
+		long key = pack(x, z);
+
+		for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+			if(keys[i] == key) return values[i];
+		}
+
+		return null;
+
+	}
+
+	/**
+	 * Adds a saga chunk.
+	 *
+	 * @param x chunk x
+	 * @param z chunk z
+	 * @param sagaChunk saga chunk
+	 * @return replaced saga chunk, null if none
+	 */
+	public synchronized SagaChunk put(int x, int z, SagaChunk sagaChunk) {
+
+
+		long key = pack(x, z);
+
+		int i = slot(key);
+		for (; values[i] != null; i = (i + 1) & mask) {
+
+			if(keys[i] == key){
+				SagaChunk previous = values[i];
+				values[i] = sagaChunk;
+				return previous;
+			}
+
+		}
+
+		keys[i] = key;
+		values[i] = sagaChunk;
+		size++;
+
+		// Keep at most half full:
+		if(size * 2 > values.length) resize(values.length * 2);
+
+		return null;
+
+
+	}
+
+	/**
+	 * Removes a saga chunk.
+	 *
+	 * @param x chunk x
+	 * @param z chunk z
+	 * @return removed saga chunk, null if none
+	 */
+	public synchronized SagaChunk remove(int x, int z) {
+
+
+		long key = pack(x, z);
+
+		int i = slot(key);
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if(keys[i] == key) break;
+		}
+
+		SagaChunk removed = values[i];
+		if(removed == null) return null;
+
+		// Shift back the following run, so probing doesn't stop early:
+		int free = i;
+		for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+
+			int home = slot(keys[j]);
+
+			// Move if the home slot isn't in (free, j]:
+			if(free <= j ? (home <= free || home > j) : (home <= free && home > j)){
+				keys[free] = keys[j];
+				values[free] = values[j];
+				free = j;
+			}
+
+		}
+
+		values[free] = null;
+		size--;
+
+		return removed;
+
+
+	}
+
+	/**
+	 * Gets the number of saga chunks.
+	 *
+	 * @return number of saga chunks
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the index is empty.
+	 *
+	 * @return true if empty
+	 */
+	public synchronized boolean isEmpty() {
+		return size == 0;
+	}
+
+
+
+	// Resizing:
+	/**
+	 * Rehashes into a new table.
+	 *
+	 * @param capacity new capacity, power of two
+	 */
+	private void resize(int capacity) {
+
+
+		long[] oldKeys = keys;
+		SagaChunk[] oldValues = values;
+
+		keys = new long[capacity];
+		values = new SagaChunk[capacity];
+		mask = capacity - 1;
+
+		for (int i = 0; i < oldValues.length; i++) {
+
+			if(oldValues[i] == null) continue;
+
+			int j = slot(oldKeys[i]);
+			while(values[j] != null) j = (j + 1) & mask;
+
+			keys[j] = oldKeys[i];
+			values[j] = oldValues[i];
+
+		}
+
+
+	}
+
+
+}
@@ -59,6 +59,11 @@ public class SagaChunk {
 	 */
 	transient private Bundle bundle = null;
 	
+	/**
+	 * True if a side borders another bundle or wilderness.
+	 */
+	transient private boolean border = false;
+	
 	
 	
 	// Initialisation:
@@ -325,7 +330,7 @@ public class SagaChunk {
 	 * @return true if the location is on the saga chunk
 	 */
 	public boolean checkRepresents(Location location) {
-		return checkRepresents(location.getWorld().getChunkAt(location));
+		return (location.getBlockX() >> 4) == x && (location.getBlockZ() >> 4) == z && location.getWorld().getName().equals(world);
 	}
 	
 	
@@ -509,7 +514,7 @@ public class SagaChunk {
 		
 		for (Player player : players) {
 			
-			SagaPlayer sagaPlayer = Saga.plugin().getLoadedPlayer(player.getName());
+			SagaPlayer sagaPlayer = Saga.plugin().getSagaPlayer(player);
 			
 			if(sagaPlayer == null){
 //				SagaLogger.severe(this, "failed to retrieve saga player for " + player.getName() + ", because the player isnt loaded");
@@ -581,6 +586,7 @@ public class SagaChunk {
 			
 			// Storage area:
 			if(bld.checkStorageArea(targetBlock)){
+				bld.invalidateStorage(targetBlock);
 				bld.handleStore(event, sagaPlayer);
 			}
 			
@@ -603,6 +609,7 @@ public class SagaChunk {
 			
 			// Storage area:
 			if(bld.checkStorageArea(targetBlock)){
+				bld.invalidateStorage(targetBlock);
 				bld.handleWithdraw(event, sagaPlayer);
 			}
 			
@@ -1014,23 +1021,28 @@ public class SagaChunk {
 	 * @return true if border
 	 */
 	public boolean isBorder() {
+		return border;
+	}
+	
+	/**
+	 * Updates the border status.
+	 * Done by chunk group manager when the chunk or a neighbour is claimed or abandoned.
+	 * 
+	 */
+	void updateBorder() {
 
 		
-		SagaChunk adjacent = null;
-		
-		adjacent = getAdjacent(ChunkSide.BACK);
-		if( adjacent == null || !adjacent.getBundle().getId().equals(getBundle().getId()) ) return true;
-		
-		adjacent = getAdjacent(ChunkSide.FRONT);
-		if( adjacent == null || !adjacent.getBundle().getId().equals(getBundle().getId()) ) return true;
-		
-		adjacent = getAdjacent(ChunkSide.LEFT);
-		if( adjacent == null || !adjacent.getBundle().getId().equals(getBundle().getId()) ) return true;
+		boolean border = false;
+		ChunkSide[] sides = ChunkSide.values();
 		
-		adjacent = getAdjacent(ChunkSide.RIGHT);
-		if( adjacent == null || !adjacent.getBundle().getId().equals(getBundle().getId()) ) return true;
+		for (int i = 0; i < sides.length && !border; i++) {
+			
+			SagaChunk adjacent = getAdjacent(sides[i]);
+			if(adjacent == null || adjacent.getBundle() == null || getBundle() == null || !adjacent.getBundle().getId().equals(getBundle().getId())) border = true;
+			
+		}
 		
-		return false;
+		this.border = border;
 		
 		
 	}
@@ -354,6 +354,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 		
 		// Add to settlement:
 		playerRoles.put(sagaPlayer.getName(), role);
+		markDirty();
 		
 		// Update:
 		sagaPlayer.update();
@@ -377,6 +378,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 
 		// Remove from settlement:
 		playerRoles.remove(sagaPlayer.getName());
+		markDirty();
 
 		// Update:
 		sagaPlayer.update();
@@ -514,6 +516,8 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 		if(available - requested > 0) workPoints.put(roleName, available - requested);
 		else workPoints.remove(roleName);
 		
+		if(requested > 0) markDirty();
+		
 		return requested;
 		
 	}
@@ -591,6 +595,8 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 				
 			}
 			
+			markDirty();
+			
 		}
 		
 		
@@ -616,7 +622,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 	 * @param memberName member name
 	 */
 	public void resetWage(String memberName) {
-		wages.remove(memberName);
+		if(wages.remove(memberName) != null) markDirty();
 	}
 
 	
@@ -638,6 +644,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 	 */
 	public void setClaims(Double claims) {
 		this.claims = claims;
+		markDirty();
 	}
 
 	/**
@@ -647,6 +654,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 	 */
 	public void modClaims(Double amount) {
 		claims+= amount;
+		markDirty();
 	}
 	
 	
@@ -715,6 +723,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 	 */
 	public void setBuildPoints(Double buildPoints) {
 		this.buildPoints = buildPoints;
+		markDirty();
 	}
 	
 	/**
@@ -724,6 +733,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 	 */
 	public void modBuildPoints(Double amount) {
 		buildPoints+= amount;
+		markDirty();
 	}
 	
 	/**
@@ -817,6 +827,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 		
 		// Settlement:
 		coins+= settlementShare;
+		if(settlementShare != 0.0) markDirty();
 		
 		// Faction:
 		Faction owningFaction = SiegeManager.manager().getOwningFaction(getId());
@@ -834,6 +845,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 		Double given = request;
 		if(given > coins) given = coins;
 		coins-= given;
+		if(given > 0) markDirty();
 		return given;
 		
 	}
@@ -845,6 +857,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 	 */
 	public void modCoins(Double amount) {
 		coins+= amount;
+		markDirty();
 	}
 	
 	
@@ -934,6 +947,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 			SagaLogger.severe(this, "last seen date not found for " + name + " player");
 			lastDate = Calendar.getInstance().getTime();
 			lastSeen.put(name, lastDate);
+			markDirty();
 		}
 		
 		return lastDate;
@@ -1061,6 +1075,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 
 		// Update last seen:
 		lastSeen.put(sagaPlayer.getName(), Calendar.getInstance().getTime());
+		markDirty();
 	
 	}
 
@@ -1098,6 +1113,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 			if(claims < SettlementConfiguration.config().getMaxClaims()){
 					
 				claims+= SettlementConfiguration.config().getClaimsPerMinute(online);
+				markDirty();
 				
 				// Statistics:
 				StatisticsManager.manager().addSettlementClaims(this, SettlementConfiguration.config().getClaimsPerMinute(online));
@@ -1108,6 +1124,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 			if(buildPoints < SettlementConfiguration.config().getMaxBuildPoints()){
 				
 				buildPoints+= SettlementConfiguration.config().getBuildPointsPerMinute(online);
+				markDirty();
 				
 				// Statistics:
 				StatisticsManager.manager().addSettlementBuildPoints(this, SettlementConfiguration.config().getBuildPointsPerMinute(online));
@@ -1164,6 +1181,7 @@ public class Settlement extends Bundle implements MinuteTicker, DaytimeTicker{
 			if(role == null) continue;
 			
 			workPoints.put(role.getName(), getWorkPoints(role.getName()) + 1);
+			markDirty();
 			
 			Double total = onlineRolesTotals.get(role.getName());
 			if(total == null) total = 0.0;
@@ -1,8 +1,10 @@
 package org.saga.shape;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 
 
@@ -35,6 +37,11 @@ public class RelativeShape {
 	 */
 	private ShapeFilter filter = null;
 	
+	/**
+	 * Compiled offsets, by orientation ordinal and level. Cleared when offsets change.
+	 */
+	private HashMap<Integer, int[]>[] compiled = null;
+	
 	// Initialization:
 	/**
 	 * Initializes.
@@ -71,6 +78,7 @@ public class RelativeShape {
 		this.yoffsets.add(y);
 		this.zoffsets.add(z);
 		this.reqLevels.add(-1);
+		this.compiled = null;
 		
 	}
 	
@@ -88,6 +96,7 @@ public class RelativeShape {
 		this.yoffsets.add(y);
 		this.zoffsets.add(z);
 		this.reqLevels.add(reqLevel);
+		this.compiled = null;
 		
 	}
 	
@@ -121,6 +130,7 @@ public class RelativeShape {
 		this.yoffsets.add(y);
 		this.zoffsets.add(z);
 		this.reqLevels.add(-1);
+		this.compiled = null;
 		
 		
 	}
@@ -139,17 +149,20 @@ public class RelativeShape {
 	public ArrayList<Block> getBlocks(Location anchor, Orientation orientation, Integer level, ShapeFilter pFilter) {
 		
 		
-		ArrayList<Block> blocks = new ArrayList<Block>();
+		int[] offsets = getOffsets(orientation, level);
+		ArrayList<Block> blocks = new ArrayList<Block>(offsets.length / 3);
 		
-		for (int i = 0; i < xoffsets.size(); i++) {
+		World world = anchor.getWorld();
+		int x = anchor.getBlockX();
+		int y = anchor.getBlockY();
+		int z = anchor.getBlockZ();
+		
+		for (int i = 0; i < offsets.length; i+=3) {
 			
-			Block block = anchor.getBlock().getRelative(getXOffset(orientation, i), getYOffset(orientation, i), getZOffset(orientation, i));
+			Block block = world.getBlockAt(x + offsets[i], y + offsets[i+1], z + offsets[i+2]);
 			
 			if(pFilter != null && !pFilter.checkBlock(block)) continue;
 			
-			Integer reqLevel = reqLevels.get(i);
-			if(reqLevel != -1 && level < reqLevel) continue;
-			
 			blocks.add(block);
 			
 		}
@@ -158,7 +171,7 @@ public class RelativeShape {
 		
 		
 	}
-
+	
 	/**
 	 * Gets the blocks of the shape.
 	 * 
@@ -171,6 +184,68 @@ public class RelativeShape {
 		return getBlocks(anchor, orientation, level, this.filter);
 	}
 	
+	/**
+	 * Gets the offsets for the orientation and level.
+	 * Offsets are compiled once and stored as x, y and z triples.
+	 * 
+	 * @param orientation orientation
+	 * @param level level
+	 * @return offset triples, shouldn't be modified
+	 */
+	@SuppressWarnings("unchecked")
+	public int[] getOffsets(Orientation orientation, int level) {
+		
+		
+		if(compiled == null) compiled = new HashMap[Orientation.values().length];
+		
+		HashMap<Integer, int[]> levels = compiled[orientation.ordinal()];
+		if(levels == null){
+			levels = new HashMap<Integer, int[]>();
+			compiled[orientation.ordinal()] = levels;
+		}
+		
+		int[] offsets = levels.get(level);
+		if(offsets != null) return offsets;
+		
+		// Compile:
+		int count = 0;
+		for (int i = 0; i < reqLevels.size(); i++) {
+			if(checkLevel(i, level)) count++;
+		}
+		
+		offsets = new int[count * 3];
+		int j = 0;
+		for (int i = 0; i < reqLevels.size(); i++) {
+			
+			if(!checkLevel(i, level)) continue;
+			
+			offsets[j++] = getXOffset(orientation, i);
+			offsets[j++] = getYOffset(orientation, i);
+			offsets[j++] = getZOffset(orientation, i);
+			
+		}
+		
+		levels.put(level, offsets);
+		
+		return offsets;
+		
+		
+	}
+	
+	/**
+	 * Checks if the shape element is included on the given level.
+	 * 
+	 * @param index shape element index
+	 * @param level level
+	 * @return true if included
+	 */
+	private boolean checkLevel(int index, int level) {
+		
+		int reqLevel = reqLevels.get(index);
+		return reqLevel == -1 || level >= reqLevel;
+		
+	}
+	
 	/**
 	 * Gets x offset.
 	 * 
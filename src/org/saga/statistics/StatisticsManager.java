@@ -9,6 +9,8 @@ import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -28,6 +30,7 @@ import org.saga.dependencies.EconomyDependency;
 import org.saga.factions.Faction;
 import org.saga.factions.SiegeManager;
 import org.saga.messages.GeneralMessages;
+import org.saga.player.PlayerIndex.PlayerSummary;
 import org.saga.player.Proficiency.ProficiencyType;
 import org.saga.player.ProficiencyDefinition;
 import org.saga.player.SagaPlayer;
@@ -113,6 +116,11 @@ public class StatisticsManager implements HourTicker{
 	 */
 	private Hashtable<String, Double> doubleValues;
 	
+	/**
+	 * Double values, by category.
+	 */
+	transient private StatisticsTree valueTree;
+	
 
 	
 	/**
@@ -120,6 +128,11 @@ public class StatisticsManager implements HourTicker{
 	 */
 	private Long startDate = null;
 	
+	/**
+	 * True if the statistics have changed since the last save.
+	 */
+	transient private boolean dirty = false;
+	
 	
 	// Initialisation:
 	/**
@@ -196,6 +209,13 @@ public class StatisticsManager implements HourTicker{
 			doubleValues = new Hashtable<String, Double>();
 		}
 		
+		// Value tree:
+		valueTree = new StatisticsTree();
+		Set<Entry<String, Double>> values = doubleValues.entrySet();
+		for (Entry<String, Double> entry : values) {
+			valueTree.set(entry.getKey(), entry.getValue());
+		}
+		
 		// Import attributes:
 		if(playerAttributes != null){
 		
@@ -212,7 +232,7 @@ public class StatisticsManager implements HourTicker{
 					
 					Double score = players.get(playerName).doubleValue();
 					
-					doubleValues.put("attributes" + "." + attribute + "." + playerName, score);
+					setValue("attributes" + "." + attribute + "." + playerName, score);
 					
 				}
 				
@@ -273,6 +293,9 @@ public class StatisticsManager implements HourTicker{
 		
 		
 		doubleValues = new Hashtable<String, Double>();
+		valueTree = new StatisticsTree();
+		
+		dirty = true;
 		
 		
 	}
@@ -327,6 +350,7 @@ public class StatisticsManager implements HourTicker{
 	public void onBlockDataChange() {
 
 		blockDataChanges++;
+		dirty = true;
 		
 	}
 
@@ -375,6 +399,8 @@ public class StatisticsManager implements HourTicker{
 		amounts += amount;
 		aMaterials.put(material, amounts);
 		
+		dirty = true;
+		
 
 	}
 	
@@ -408,6 +434,8 @@ public class StatisticsManager implements HourTicker{
 		amounts += amount;
 		aMaterials.put(material, amounts);
 		
+		dirty = true;
+		
 
 	}
 	
@@ -601,6 +629,7 @@ public class StatisticsManager implements HourTicker{
 
 		exp+= amount;
 		subcats.put(subcategory, exp);
+		dirty = true;
 		
 
 	}
@@ -674,7 +703,8 @@ public class StatisticsManager implements HourTicker{
 	// Values:
 	public void modifyValue(String key, Double mod) {
 
-		doubleValues.put(key, getValue(key) + mod);
+		doubleValues.put(key, valueTree.modify(key, mod));
+		dirty = true;
 		
 	}
 	
@@ -687,6 +717,8 @@ public class StatisticsManager implements HourTicker{
 	public void setValue(String key, Double value) {
 
 		doubleValues.put(key, value);
+		valueTree.set(key, value);
+		dirty = true;
 		
 	}
 
@@ -698,58 +730,45 @@ public class StatisticsManager implements HourTicker{
 	
 	public double getValue(String key) {
 
-		Double value = doubleValues.get(key);
-		if(value == null) return 0.0;
-		
-		return value;
+		return valueTree.get(key);
 	
 	}
 	
 	public void clearCateg(String category) {
 
 		
-		Set<String> allCategs = doubleValues.keySet();
-		
-		for (String fullCateg : allCategs) {
-			
-			if(!fullCateg.startsWith(category + ".")) continue;
+		ArrayList<String> keys = valueTree.removeBelow(category);
 		
-			doubleValues.remove(fullCateg);
-			
+		for (String key : keys) {
+			doubleValues.remove(key);
 		}
 		
+		if(keys.size() > 0) dirty = true;
+		
 		
 	}
 	
 	public void clearValue(String key) {
 
 		doubleValues.remove(key);
+		if(valueTree.remove(key)) dirty = true;
 		
 	}
 	
-	public double getSumValue(String category, boolean ignoreBottom) {
+	public double getSumValue(String category) {
 
-		
-		Double sum = getValue(category);
-		
-		Collection<String> subCategs = getSubCategs(category, ignoreBottom);
-		
-		for (String subCateg : subCategs) {
-			sum += getSumValue(category + "." + subCateg, ignoreBottom);
-		}
-		
-		return sum;
-		
+		return valueTree.getSum(category);
 		
 	}
 	
 	public static int calcCategDepth(String category) {
 
 		int depth = 0;
-		while(category.contains(".")){
+		int index = category.indexOf('.');
+		while(index != -1){
 			
-			category = category.replaceFirst("\\.", "");
 			depth++;
+			index = category.indexOf('.', index + 1);
 			
 		}
 		
@@ -760,54 +779,16 @@ public class StatisticsManager implements HourTicker{
 	public static String formatCategName(String category) {
 
 		
-		String[] subCategs = category.split("\\.");
+		String name = category.substring(category.lastIndexOf('.') + 1);
 		
-		return ChatUtil.repeat(GeneralMessages.TAB, calcCategDepth(category)) + subCategs[subCategs.length - 1];
+		return ChatUtil.repeat(GeneralMessages.TAB, calcCategDepth(category)) + name;
 		
 		
 	}
 
 	public TreeSet<String> getSubCategs(String category, boolean ignoreBottom) {
 
-		
-		Set<String> allCategs = doubleValues.keySet();
-		TreeSet<String> subCategs = new TreeSet<String>();
-		
-		for (String fullCateg : allCategs) {
-			
-			if(fullCateg.length() == 0) continue;
-			
-			if(!fullCateg.startsWith(category + ".")) continue;
-			
-			String subCateg = fullCateg.replaceFirst(category + "\\.", "");
-			
-			if(ignoreBottom){
-				int lastIndex = subCateg.lastIndexOf(".");
-				if(lastIndex != -1) subCateg = subCateg.substring(0, lastIndex);
-			}
-			
-			String[] subSuperCategs = subCateg.split("\\.");
-			
-			if(subSuperCategs.length > 1){
-				
-				String subSuperCateg = subSuperCategs[0];
-					
-				for (int i = 1; i < subSuperCategs.length; i++) {
-					
-					if(!subCategs.contains(subSuperCateg)) subCategs.add(subSuperCateg);
-					
-					subSuperCateg += "." + subSuperCategs[i];
-					
-				}
-				
-			}
-			
-			subCategs.add(subCateg);
-			
-		}
-		
-		return subCategs;
-		
+		return valueTree.getSubCategs(category, ignoreBottom);
 		
 	}
 	
@@ -837,24 +818,36 @@ public class StatisticsManager implements HourTicker{
 	// Updating:
 	public void setPlayer(SagaPlayer sagaPlayer) {
 
+		setPlayer(sagaPlayer.getName(), sagaPlayer.getRawAttributeScores(), sagaPlayer.getRawAbilityScores());
+		
+	}
+	
+	public void setPlayer(PlayerSummary summary) {
+
+		setPlayer(summary.getName(), summary.getRawAttributeScores(), summary.getRawAbilityScores());
+		
+	}
+	
+	private void setPlayer(String name, Map<String, Integer> attributeScores, Map<String, Integer> abilityScores) {
+
 		
 		ArrayList<String> attributes = AttributeConfiguration.config().getAttributeNames();
 		for (String attribute : attributes) {
 			
-			Integer score = sagaPlayer.getRawAttributeScore(attribute);
-			if(score < 1) continue;
+			Integer score = attributeScores.get(attribute);
+			if(score == null || score < 1) continue;
 			
-			setValue("attributes.trained" + "." + attribute + "." + sagaPlayer.getName(), score);
+			setValue("attributes.trained" + "." + attribute + "." + name, score);
 			
 		}
 		
 		ArrayList<String> abilities = AbilityConfiguration.config().getAbilityNames();
 		for (String ability : abilities) {
 			
-			Integer score = sagaPlayer.getRawAbilityScore(ability);
-			if(score < 1) continue;
+			Integer score = abilityScores.get(ability);
+			if(score == null || score < 1) continue;
 			
-			setValue("abilities.trained" + "." + ability + "." + sagaPlayer.getName(), score);
+			setValue("abilities.trained" + "." + ability + "." + name, score);
 			
 		}
 		
@@ -972,7 +965,19 @@ public class StatisticsManager implements HourTicker{
 
 	public void setWallet(SagaPlayer sagaPlayer) {
 
-		setValue("wallet" + "." + sagaPlayer.getName(), EconomyDependency.getCoins(sagaPlayer));
+		setWallet(sagaPlayer.getName(), EconomyDependency.getCoins(sagaPlayer));
+		
+	}
+
+	public void setWallet(PlayerSummary summary) {
+
+		setWallet(summary.getName(), EconomyDependency.getCoins(summary));
+		
+	}
+	
+	private void setWallet(String name, Double coins) {
+
+		setValue("wallet" + "." + name, coins);
 		
 	}
 	
@@ -1082,7 +1087,7 @@ public class StatisticsManager implements HourTicker{
 			
 			instance = new StatisticsManager("");
 			instance.reset();
-			save();
+			save(true);
         	
         }
 		
@@ -1125,18 +1130,34 @@ public class StatisticsManager implements HourTicker{
 	}
 	
 	/**
-	 * Saves the statistics.
+	 * Saves the statistics if they have changed.
 	 * 
 	 */
 	public static void save(){
+		save(false);
+	}
+	
+	/**
+	 * Saves the statistics.
+	 * 
+	 * @param all true if the statistics should be saved even if unchanged
+	 */
+	public static void save(boolean all){
 
 		
+		// Unchanged:
+		if(!all && !instance.dirty){
+			SagaLogger.info("Skipping unchanged statistics.");
+			return;
+		}
+		
 		// Inform:
 		SagaLogger.info("Saving statistics.");
 		
 		try {
 			
 			WriterReader.write(Directory.STATISTICS, "last", instance);
+			instance.dirty = false;
 			
 		} catch (IOException e) {
 			
@@ -1189,7 +1210,7 @@ public class StatisticsManager implements HourTicker{
 		// Inform:
 		SagaLogger.info("Unloading statistics.");
 		
-		save();
+		save(true);
 		
 		instance = null;
 		
@@ -0,0 +1,383 @@
+package org.saga.statistics;
+
+import java.util.ArrayList;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Statistics values arranged by dotted category names.
+ * Every category keeps the total of its own value and all values below it.
+ *
+ */
+public class StatisticsTree {
+
+
+	/**
+	 * Root category.
+	 */
+	private final Node root = new Node(null, "");
+
+
+
+	// Values:
+	/**
+	 * Gets a value.
+	 *
+	 * @param key full category name
+	 * @return value, 0 if not set
+	 */
+	public double get(String key) {
+
+
+		Node node = find(key);
+		if(node == null || !node.set) return 0.0;
+
+		return node.value;
+
+
+	}
+
+	/**
+	 * Sets a value.
+	 *
+	 * @param key full category name
+	 * @param value value
+	 */
+	public void set(String key, double value) {
+
+
+		Node node = create(key);
+
+		double mod = node.set ? value - node.value : value;
+		node.value = value;
+		node.set = true;
+
+		addTotal(node, mod);
+
+
+	}
+
+	/**
+	 * Modifies a value.
+	 *
+	 * @param key full category name
+	 * @param mod modification
+	 * @return new value
+	 */
+	public double modify(String key, double mod) {
+
+
+		Node node = create(key);
+
+		node.value = node.set ? node.value + mod : mod;
+		node.set = true;
+
+		addTotal(node, mod);
+
+		return node.value;
+
+
+	}
+
+	/**
+	 * Removes a value.
+	 *
+	 * @param key full category name
+	 * @return true if the value was set
+	 */
+	public boolean remove(String key) {
+
+
+		Node node = find(key);
+		if(node == null || !node.set) return false;
+
+		addTotal(node, -node.value);
+		node.value = 0.0;
+		node.set = false;
+
+		prune(node);
+
+		return true;
+
+
+	}
+
+	/**
+	 * Removes all values below the category.
+	 *
+	 * @param category category
+	 * @return full names of removed values
+	 */
+	public ArrayList<String> removeBelow(String category) {
+
+
+		ArrayList<String> keys = new ArrayList<String>();
+
+		Node node = find(category);
+		if(node == null || node.children == null) return keys;
+
+		for (Node child : node.children.values()) {
+			collectKeys(child, category + "." + child.name, keys);
+		}
+
+		addTotal(node, -(node.total - (node.set ? node.value : 0.0)));
+		node.children = null;
+
+		prune(node);
+
+		return keys;
+
+
+	}
+
+	/**
+	 * Gets the total of the category and all categories below it.
+	 *
+	 * @param category category
+	 * @return total
+	 */
+	public double getSum(String category) {
+
+
+		Node node = find(category);
+		if(node == null) return 0.0;
+
+		return node.total;
+
+
+	}
+
+	/**
+	 * Gets all category names below the category, relative to it.
+	 *
+	 * @param category category
+	 * @param ignoreBottom true if the bottom categories are ignored, except the ones directly below
+	 * @return sub categories
+	 */
+	public TreeSet<String> getSubCategs(String category, boolean ignoreBottom) {
+
+
+		TreeSet<String> subCategs = new TreeSet<String>();
+
+		Node node = find(category);
+		if(node == null || node.children == null) return subCategs;
+
+		for (Node child : node.children.values()) {
+
+			if(!ignoreBottom || child.children == null) subCategs.add(child.name);
+			collectCategs(child, child.name, ignoreBottom, subCategs);
+
+		}
+
+		return subCategs;
+
+
+	}
+
+
+
+	// Nodes:
+	/**
+	 * Finds a node.
+	 *
+	 * @param key full category name
+	 * @return node, null if none
+	 */
+	private Node find(String key) {
+
+
+		Node node = root;
+		int start = 0;
+
+		while(node != null){
+
+			int end = key.indexOf('.', start);
+			if(end == -1) end = key.length();
+
+			node = (node.children != null) ? node.children.get(key.substring(start, end)) : null;
+
+			if(end == key.length()) break;
+			start = end + 1;
+
+		}
+
+		return node;
+
+
+	}
+
+	/**
+	 * Finds a node, creates it if necessary.
+	 *
+	 * @param key full category name
+	 * @return node
+	 */
+	private Node create(String key) {
+
+
+		Node node = root;
+		int start = 0;
+
+		while(true){
+
+			int end = key.indexOf('.', start);
+			if(end == -1) end = key.length();
+
+			String name = key.substring(start, end);
+
+			if(node.children == null) node.children = new TreeMap<String, Node>();
+			Node child = node.children.get(name);
+			if(child == null){
+				child = new Node(node, name);
+				node.children.put(name, child);
+			}
+			node = child;
+
+			if(end == key.length()) break;
+			start = end + 1;
+
+		}
+
+		return node;
+
+
+	}
+
+	/**
+	 * Adds to the total of the node and all nodes above it.
+	 *
+	 * @param node node
+	 * @param mod modification
+	 */
+	private static void addTotal(Node node, double mod) {
+
+		while(node != null){
+			node.total+= mod;
+			node = node.parent;
+		}
+
+	}
+
+	/**
+	 * Removes the node and all nodes above it that no longer hold values.
+	 *
+	 * @param node node
+	 */
+	private static void prune(Node node) {
+
+
+		while(node.parent != null && !node.set && (node.children == null || node.children.isEmpty())){
+
+			node.parent.children.remove(node.name);
+			node = node.parent;
+
+		}
+
+
+	}
+
+	/**
+	 * Collects full names for all values below and including the node.
+	 *
+	 * @param node node
+	 * @param key full category name of the node
+	 * @param keys collected names
+	 */
+	private static void collectKeys(Node node, String key, ArrayList<String> keys) {
+
+
+		if(node.set) keys.add(key);
+		if(node.children == null) return;
+
+		for (Entry<String, Node> entry : node.children.entrySet()) {
+			collectKeys(entry.getValue(), key + "." + entry.getKey(), keys);
+		}
+
+
+	}
+
+	/**
+	 * Collects relative category names below the node.
+	 *
+	 * @param node node
+	 * @param name relative name of the node
+	 * @param ignoreBottom true if the bottom categories are ignored
+	 * @param subCategs collected names
+	 */
+	private static void collectCategs(Node node, String name, boolean ignoreBottom, TreeSet<String> subCategs) {
+
+
+		if(node.children == null) return;
+
+		// Has categories below:
+		if(ignoreBottom) subCategs.add(name);
+
+		for (Node child : node.children.values()) {
+
+			String childName = name + "." + child.name;
+			if(!ignoreBottom) subCategs.add(childName);
+			collectCategs(child, childName, ignoreBottom, subCategs);
+
+		}
+
+
+	}
+
+
+
+	// Types:
+	/**
+	 * Category.
+	 *
+	 */
+	private static class Node {
+
+
+		/**
+		 * Parent, null if root.
+		 */
+		private final Node parent;
+
+		/**
+		 * Name, relative to parent.
+		 */
+		private final String name;
+
+		/**
+		 * Categories below, ordered by name. Null if none.
+		 */
+		private TreeMap<String, Node> children = null;
+
+		/**
+		 * Value.
+		 */
+		private double value = 0.0;
+
+		/**
+		 * True if the value is set.
+		 */
+		private boolean set = false;
+
+		/**
+		 * Total of the value and all values below.
+		 */
+		private double total = 0.0;
+
+
+		/**
+		 * Creates a category.
+		 *
+		 * @param parent parent
+		 * @param name name
+		 */
+		private Node(Node parent, String name) {
+			this.parent = parent;
+			this.name = name;
+		}
+
+
+	}
+
+
+}